@@ -0,0 +1,447 @@
+/**
+ * AgentStates.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.aiwolf.common.data.Agent;
+import org.aiwolf.common.data.Judge;
+import org.aiwolf.common.data.Role;
+import org.aiwolf.common.data.Species;
+import org.aiwolf.common.data.Status;
+
+/**
+ * States of agents indexed by the index of agent.
+ * 
+ * <p>
+ * Each set of agents is a bit mask of 64 bits, whose i-th bit stands for the agent whose index is i, so that the indices must be less
+ * than 64. The agents out of the range and null are treated as unknown, neither alive nor dead and gray.
+ * </p>
+ * 
+ * <p>
+ * The version is incremented whenever any state actually changes, so that the states derived from these can be cached until then.
+ * </p>
+ * 
+ * @author otsuki
+ */
+public class AgentStates {
+
+	private static final byte ANY = 0;
+	private static final byte HUMAN = 1;
+	private static final byte WEREWOLF = 2;
+
+	private Agent[] agents = new Agent[0];
+	private byte[] species = new byte[0];
+	private Role[] coRoles = new Role[0];
+	private Judge[] divinations = new Judge[0];
+	private Judge[] idents = new Judge[0];
+
+	private long allMask;
+	private long aliveMask;
+	private long deadMask;
+	private long executedMask;
+	private long killedMask;
+	private long humanMask;
+	private long wolfMask;
+	private long coMask;
+
+	private long version;
+
+	/**
+	 * Returns the bit of the agent.
+	 * 
+	 * @param agent the agent
+	 * @return the bit of the agent, 0 if the agent is null or out of range
+	 */
+	public static long bit(Agent agent) {
+		if (agent == null || agent.getAgentIdx() < 0 || agent.getAgentIdx() >= Long.SIZE) {
+			return 0L;
+		}
+		return 1L << agent.getAgentIdx();
+	}
+
+	/**
+	 * Returns whether or not the mask contains the agent.
+	 * 
+	 * @param mask  the mask
+	 * @param agent the agent
+	 * @return true if the mask contains the agent
+	 */
+	public static boolean contains(long mask, Agent agent) {
+		return (mask & bit(agent)) != 0;
+	}
+
+	/**
+	 * Returns the mask of the agents.
+	 * 
+	 * @param agents the agents
+	 * @return the mask of the agents
+	 */
+	public static long maskOf(Collection<Agent> agents) {
+		long mask = 0L;
+		for (Agent agent : agents) {
+			mask |= bit(agent);
+		}
+		return mask;
+	}
+
+	/**
+	 * Clears all the states and sets the agents in the game.
+	 * 
+	 * @param agentList the agents in the game
+	 */
+	public void initialize(List<Agent> agentList) {
+		int size = 0;
+		for (Agent agent : agentList) {
+			if (agent.getAgentIdx() >= Long.SIZE) {
+				throw new IllegalArgumentException("Too large index of agent: " + agent);
+			}
+			size = Math.max(size, agent.getAgentIdx() + 1);
+		}
+		if (agents.length != size) {
+			agents = new Agent[size];
+			species = new byte[size];
+			coRoles = new Role[size];
+			divinations = new Judge[size];
+			idents = new Judge[size];
+		} else {
+			Arrays.fill(agents, null);
+			Arrays.fill(species, ANY);
+			Arrays.fill(coRoles, null);
+			Arrays.fill(divinations, null);
+			Arrays.fill(idents, null);
+		}
+		allMask = 0L;
+		for (Agent agent : agentList) {
+			agents[agent.getAgentIdx()] = agent;
+			allMask |= bit(agent);
+		}
+		aliveMask = 0L;
+		deadMask = 0L;
+		executedMask = 0L;
+		killedMask = 0L;
+		humanMask = 0L;
+		wolfMask = 0L;
+		coMask = 0L;
+		version++;
+	}
+
+	/**
+	 * Returns the version of the states.
+	 * 
+	 * @return the version incremented on every change
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Updates the alive and the dead agents.
+	 * 
+	 * @param statusMap the status of agents
+	 */
+	public void updateStatus(Map<Agent, Status> statusMap) {
+		long alive = 0L;
+		long dead = 0L;
+		for (Map.Entry<Agent, Status> entry : statusMap.entrySet()) {
+			if (entry.getValue() == Status.ALIVE) {
+				alive |= bit(entry.getKey());
+			} else if (entry.getValue() == Status.DEAD) {
+				dead |= bit(entry.getKey());
+			}
+		}
+		if (alive != aliveMask || dead != deadMask) {
+			aliveMask = alive;
+			deadMask = dead;
+			version++;
+		}
+	}
+
+	/**
+	 * Returns the agents in the mask in the order of index.
+	 * 
+	 * @param mask the mask
+	 * @return the list of agents
+	 */
+	public List<Agent> toList(long mask) {
+		List<Agent> list = new ArrayList<>(Long.bitCount(mask));
+		for (long m = mask & allMask; m != 0; m &= m - 1) {
+			list.add(agents[Long.numberOfTrailingZeros(m)]);
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the agent of the index.
+	 * 
+	 * @param idx the index
+	 * @return the agent, null if not in the game
+	 */
+	public Agent get(int idx) {
+		return idx >= 0 && idx < agents.length ? agents[idx] : null;
+	}
+
+	private int indexOf(Agent agent) {
+		return (allMask & bit(agent)) != 0 ? agent.getAgentIdx() : -1;
+	}
+
+	/**
+	 * Returns the mask of all the agents.
+	 * 
+	 * @return the mask
+	 */
+	public long getAllMask() {
+		return allMask;
+	}
+
+	/**
+	 * Returns the mask of the alive agents.
+	 * 
+	 * @return the mask
+	 */
+	public long getAliveMask() {
+		return aliveMask;
+	}
+
+	/**
+	 * Returns the mask of the dead agents.
+	 * 
+	 * @return the mask
+	 */
+	public long getDeadMask() {
+		return deadMask;
+	}
+
+	/**
+	 * Returns the mask of the executed agents.
+	 * 
+	 * @return the mask
+	 */
+	public long getExecutedMask() {
+		return executedMask;
+	}
+
+	/**
+	 * Returns the mask of the agents killed by werewolf's attack.
+	 * 
+	 * @return the mask
+	 */
+	public long getKilledMask() {
+		return killedMask;
+	}
+
+	/**
+	 * Returns the mask of the human agents.
+	 * 
+	 * @return the mask
+	 */
+	public long getHumanMask() {
+		return humanMask;
+	}
+
+	/**
+	 * Returns the mask of the werewolves.
+	 * 
+	 * @return the mask
+	 */
+	public long getWolfMask() {
+		return wolfMask;
+	}
+
+	/**
+	 * Returns the mask of the unjudged agents.
+	 * 
+	 * @return the mask
+	 */
+	public long getGrayMask() {
+		return allMask & ~(humanMask | wolfMask);
+	}
+
+	/**
+	 * Returns the mask of the agents that has done CO of the role.
+	 * 
+	 * @param role the role, null for any role
+	 * @return the mask
+	 */
+	public long getCoMask(Role role) {
+		if (role == null) {
+			return coMask;
+		}
+		long mask = 0L;
+		for (long m = coMask; m != 0; m &= m - 1) {
+			int idx = Long.numberOfTrailingZeros(m);
+			if (coRoles[idx] == role) {
+				mask |= 1L << idx;
+			}
+		}
+		return mask;
+	}
+
+	public boolean isAlive(Agent agent) {
+		return contains(aliveMask, agent);
+	}
+
+	public boolean isDead(Agent agent) {
+		return contains(deadMask, agent);
+	}
+
+	public boolean isExecuted(Agent agent) {
+		return contains(executedMask, agent);
+	}
+
+	public void setExecuted(Agent agent) {
+		long mask = executedMask | (bit(agent) & allMask);
+		if (mask != executedMask) {
+			executedMask = mask;
+			version++;
+		}
+	}
+
+	public boolean isKilled(Agent agent) {
+		return contains(killedMask, agent);
+	}
+
+	public void setKilled(Agent agent) {
+		long mask = killedMask | (bit(agent) & allMask);
+		if (mask != killedMask) {
+			killedMask = mask;
+			version++;
+		}
+	}
+
+	/**
+	 * Returns the species of the agent.
+	 * 
+	 * @param agent the agent
+	 * @return the species, Species.ANY if unjudged
+	 */
+	public Species getSpecies(Agent agent) {
+		int idx = indexOf(agent);
+		if (idx < 0) {
+			return Species.ANY;
+		}
+		switch (species[idx]) {
+		case HUMAN:
+			return Species.HUMAN;
+		case WEREWOLF:
+			return Species.WEREWOLF;
+		default:
+			return Species.ANY;
+		}
+	}
+
+	/**
+	 * Sets the species of the agent.
+	 * 
+	 * @param agent the agent
+	 * @param sp    the species, Species.ANY for unjudged
+	 */
+	public void setSpecies(Agent agent, Species sp) {
+		int idx = indexOf(agent);
+		if (idx < 0) {
+			return;
+		}
+		byte value = sp == Species.HUMAN ? HUMAN : sp == Species.WEREWOLF ? WEREWOLF : ANY;
+		if (species[idx] == value) {
+			return;
+		}
+		long b = 1L << idx;
+		humanMask &= ~b;
+		wolfMask &= ~b;
+		if (value == HUMAN) {
+			humanMask |= b;
+		} else if (value == WEREWOLF) {
+			wolfMask |= b;
+		}
+		species[idx] = value;
+		version++;
+	}
+
+	/**
+	 * Returns the role of the CO the agent has done.
+	 * 
+	 * @param agent the agent
+	 * @return null if the agent has not done CO
+	 */
+	public Role getCoRole(Agent agent) {
+		int idx = indexOf(agent);
+		return idx < 0 ? null : coRoles[idx];
+	}
+
+	/**
+	 * Sets the role of the CO the agent has done.
+	 * 
+	 * @param agent the agent
+	 * @param role  the role
+	 */
+	public void setCoRole(Agent agent, Role role) {
+		int idx = indexOf(agent);
+		if (idx < 0) {
+			return;
+		}
+		if (coRoles[idx] == role) {
+			return;
+		}
+		coRoles[idx] = role;
+		coMask |= 1L << idx;
+		version++;
+	}
+
+	/**
+	 * Returns the latest divination result reported by the agent.
+	 * 
+	 * @param reporter the agent who reported its divination
+	 * @return null if no report
+	 */
+	public Judge getDivinationBy(Agent reporter) {
+		int idx = indexOf(reporter);
+		return idx < 0 ? null : divinations[idx];
+	}
+
+	/**
+	 * Sets the latest divination result reported by its reporter.
+	 * 
+	 * @param judge the divination result
+	 */
+	public void setDivination(Judge judge) {
+		int idx = indexOf(judge.getAgent());
+		if (idx >= 0) {
+			divinations[idx] = judge;
+		}
+		// the reports change even if the reporter is unknown
+		version++;
+	}
+
+	/**
+	 * Returns the latest medium result reported by the agent.
+	 * 
+	 * @param reporter the agent who reported its medium
+	 * @return null if no report
+	 */
+	public Judge getIdentBy(Agent reporter) {
+		int idx = indexOf(reporter);
+		return idx < 0 ? null : idents[idx];
+	}
+
+	/**
+	 * Sets the latest medium result reported by its reporter.
+	 * 
+	 * @param judge the medium result
+	 */
+	public void setIdent(Judge judge) {
+		int idx = indexOf(judge.getAgent());
+		if (idx >= 0) {
+			idents[idx] = judge;
+		}
+		version++;
+	}
+
+}
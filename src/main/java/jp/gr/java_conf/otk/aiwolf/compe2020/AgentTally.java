@@ -0,0 +1,168 @@
+/**
+ * AgentTally.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aiwolf.common.data.Agent;
+
+/**
+ * Counts of agents, kept in descending order of count.
+ * 
+ * <p>
+ * Agents having the same count are ordered by index. Since a count changes by one at a time, the agent is moved only past its
+ * neighbors, and the list is never sorted again.
+ * </p>
+ * 
+ * @author otsuki
+ */
+public class AgentTally {
+
+	private Map<Agent, int[]> countMap = new HashMap<>();
+
+	private List<Agent> orderedList = new ArrayList<>();
+
+	private int total;
+
+	/**
+	 * Increments the count of the agent.
+	 * 
+	 * @param agent the agent
+	 */
+	public void increment(Agent agent) {
+		int[] count = countMap.get(agent);
+		if (count == null) {
+			countMap.put(agent, new int[] { 1 });
+			orderedList.add(agent);
+		} else {
+			count[0]++;
+		}
+		total++;
+		int i = orderedList.indexOf(agent);
+		while (i > 0 && precedes(agent, orderedList.get(i - 1))) {
+			Collections.swap(orderedList, i, i - 1);
+			i--;
+		}
+	}
+
+	/**
+	 * Decrements the count of the agent, which is removed when the count becomes zero.
+	 * 
+	 * @param agent the agent
+	 */
+	public void decrement(Agent agent) {
+		int[] count = countMap.get(agent);
+		if (count == null) {
+			return;
+		}
+		total--;
+		if (--count[0] == 0) {
+			countMap.remove(agent);
+			orderedList.remove(agent);
+			return;
+		}
+		int i = orderedList.indexOf(agent);
+		while (i < orderedList.size() - 1 && precedes(orderedList.get(i + 1), agent)) {
+			Collections.swap(orderedList, i, i + 1);
+			i++;
+		}
+	}
+
+	private boolean precedes(Agent a1, Agent a2) {
+		int c1 = getCount(a1);
+		int c2 = getCount(a2);
+		return c1 > c2 || (c1 == c2 && a1.getAgentIdx() < a2.getAgentIdx());
+	}
+
+	/**
+	 * Returns the count of the agent.
+	 * 
+	 * @param agent the agent
+	 * @return the count
+	 */
+	public int getCount(Agent agent) {
+		int[] count = countMap.get(agent);
+		return count == null ? 0 : count[0];
+	}
+
+	/**
+	 * Returns the sum of counts.
+	 * 
+	 * @return the sum of counts
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns the agents having positive counts in descending order of count.
+	 * 
+	 * @return the unmodifiable list of agents
+	 */
+	public List<Agent> getOrderedList() {
+		return Collections.unmodifiableList(orderedList);
+	}
+
+	/**
+	 * Returns the agents in descending order of count except the excluded.
+	 * 
+	 * @param excludes agents to be excluded
+	 * @return the list of agents
+	 */
+	public List<Agent> getOrderedList(Collection<Agent> excludes) {
+		List<Agent> list = new ArrayList<>(orderedList.size());
+		for (Agent agent : orderedList) {
+			if (!excludes.contains(agent)) {
+				list.add(agent);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns the agent having the maximum count except the excluded.
+	 * 
+	 * @param excludes agents to be excluded
+	 * @return the agent, null if none
+	 */
+	public Agent getTop(Collection<Agent> excludes) {
+		for (Agent agent : orderedList) {
+			if (!excludes.contains(agent)) {
+				return agent;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the agents having the maximum count.
+	 * 
+	 * @return the list of agents, empty if none
+	 */
+	public List<Agent> getTopList() {
+		int n = 0;
+		while (n < orderedList.size() && getCount(orderedList.get(n)) == getCount(orderedList.get(0))) {
+			n++;
+		}
+		return new ArrayList<>(orderedList.subList(0, n));
+	}
+
+	/**
+	 * Clears all the counts.
+	 */
+	public void clear() {
+		countMap.clear();
+		orderedList.clear();
+		total = 0;
+	}
+
+}
@@ -7,18 +7,19 @@
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToDoubleFunction;
 
 import org.aiwolf.client.lib.AgreeContentBuilder;
 import org.aiwolf.client.lib.AndContentBuilder;
@@ -49,12 +50,12 @@ import org.aiwolf.common.data.Judge;
 import org.aiwolf.common.data.Player;
 import org.aiwolf.common.data.Role;
 import org.aiwolf.common.data.Species;
-import org.aiwolf.common.data.Status;
 import org.aiwolf.common.data.Talk;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
 
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.TalkStore;
 
 /**
  * Base class for all players.
@@ -63,6 +64,13 @@ import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
  */
 public class BasePlayer implements Player {
 
+	// bounded pool shared by all the players, whose threads do not keep the JVM alive
+	private static final ExecutorService executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+		Thread thread = new Thread(r, "otsuki2020-update");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	/**
 	 * True on debug.
 	 */
@@ -79,6 +87,53 @@ public class BasePlayer implements Player {
 		this.metaInfo = metaInfo;
 	}
 
+	/**
+	 * Runs the task on the bounded pool shared by all the players.
+	 * 
+	 * @param task the task
+	 * @return the future to be joined by join()
+	 */
+	protected static CompletableFuture<Void> runAsync(Runnable task) {
+		return CompletableFuture.runAsync(task, executor);
+	}
+
+	/**
+	 * Waits for the task run by runAsync() to complete, rethrowing the exception thrown by the task.
+	 * 
+	 * @param future the future of the task
+	 */
+	protected static void join(CompletableFuture<Void> future) {
+		try {
+			future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the meta information.
+	 * 
+	 * @return the meta information
+	 */
+	protected MetaInfo getMetaInfo() {
+		return metaInfo;
+	}
+
+	/**
+	 * Returns the store of parsed talks.
+	 * 
+	 * @return the store of parsed talks
+	 */
+	protected TalkStore getTalkStore() {
+		return metaInfo.getTalkStore();
+	}
+
 	/**
 	 * Returns the agent representing this player.
 	 * 
@@ -168,7 +223,8 @@ public class BasePlayer implements Player {
 	 * @return the list of other agents
 	 */
 	protected List<Agent> getOthers() {
-		return getOthers(gameInfo.getAgentList());
+		updateDerivedStates();
+		return new ArrayList<>(othersCache);
 	}
 
 	/**
@@ -178,7 +234,7 @@ public class BasePlayer implements Player {
 	 * @return the list of given agents except for this
 	 */
 	protected List<Agent> getOthers(Collection<Agent> agents) {
-		return agents.stream().filter(a -> a != me).distinct().collect(Collectors.toList());
+		return select(agents, ~AgentStates.bit(me), true);
 	}
 
 	/**
@@ -187,10 +243,74 @@ public class BasePlayer implements Player {
 	 * @return the list of alive other agents
 	 */
 	protected List<Agent> getAliveOthers() {
-		return getAlive(getOthers());
+		updateDerivedStates();
+		return new ArrayList<>(aliveOthersCache);
+	}
+
+	/**
+	 * Returns the mask of alive other agents.
+	 * 
+	 * @return the mask of alive other agents
+	 */
+	protected long getAliveOthersMask() {
+		return states.getAliveMask() & ~AgentStates.bit(me);
+	}
+
+	private AgentStates states = new AgentStates();
+
+	/**
+	 * Returns the states of agents indexed by the index of agent.
+	 * 
+	 * @return the states of agents
+	 */
+	protected AgentStates getStates() {
+		return states;
 	}
 
-	private Set<Agent> executedAgents = new HashSet<>();
+	/**
+	 * Returns the agents in the mask in the order of index.
+	 * 
+	 * @param mask the mask of agents
+	 * @return the list of agents
+	 */
+	protected List<Agent> toList(long mask) {
+		return states.toList(mask);
+	}
+
+	/**
+	 * Returns the agent with the maximum evaluation in the mask, the one with the smaller index if tied.
+	 * 
+	 * @param mask the mask of candidates
+	 * @param eval the evaluation function
+	 * @return the agent with the maximum evaluation, null if no candidate
+	 */
+	protected Agent selectMax(long mask, ToDoubleFunction<Agent> eval) {
+		Agent best = null;
+		double bestValue = 0;
+		for (long m = mask & states.getAllMask(); m != 0; m &= m - 1) {
+			Agent agent = states.get(Long.numberOfTrailingZeros(m));
+			double value = eval.applyAsDouble(agent);
+			if (best == null || value > bestValue) {
+				best = agent;
+				bestValue = value;
+			}
+		}
+		return best;
+	}
+
+	// keeps the order of agents
+	private static List<Agent> select(Collection<Agent> agents, long mask, boolean distinct) {
+		List<Agent> list = new ArrayList<>(agents.size());
+		long seen = 0L;
+		for (Agent agent : agents) {
+			long b = AgentStates.bit(agent);
+			if ((mask & b) != 0 && (!distinct || (seen & b) == 0)) {
+				list.add(agent);
+				seen |= b;
+			}
+		}
+		return list;
+	}
 
 	/**
 	 * Returns whether or not the agent was executed.
@@ -199,11 +319,9 @@ public class BasePlayer implements Player {
 	 * @return true if the agent was executed
 	 */
 	protected boolean isExecuted(Agent agent) {
-		return executedAgents.contains(agent);
+		return states.isExecuted(agent);
 	}
 
-	private Set<Agent> killedAgents = new HashSet<>();
-
 	/**
 	 * Returns whether or not the agent was killed by werewolf's attack.
 	 * 
@@ -211,7 +329,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent was killed
 	 */
 	protected boolean isKilled(Agent agent) {
-		return killedAgents.contains(agent);
+		return states.isKilled(agent);
 	}
 
 	private List<Judge> divinationReports = new ArrayList<>();
@@ -225,8 +343,6 @@ public class BasePlayer implements Player {
 		return Collections.unmodifiableList(divinationReports);
 	}
 
-	private Map<Agent, Judge> divinationMap = new HashMap<>();
-
 	/**
 	 * Returns the latest divination result reported by the agent.
 	 * 
@@ -234,7 +350,7 @@ public class BasePlayer implements Player {
 	 * @return null if no report
 	 */
 	protected Judge getDivinationBy(Agent reporter) {
-		return divinationMap.getOrDefault(reporter, null);
+		return states.getDivinationBy(reporter);
 	}
 
 	private List<Judge> myDivinations = new ArrayList<>();
@@ -285,8 +401,6 @@ public class BasePlayer implements Player {
 		return Collections.unmodifiableList(identReports);
 	}
 
-	private Map<Agent, Judge> identMap = new HashMap<>();
-
 	/**
 	 * Returns the latest medium result reported by the agent.
 	 * 
@@ -294,7 +408,7 @@ public class BasePlayer implements Player {
 	 * @return null if no report
 	 */
 	protected Judge getIdentBy(Agent reporter) {
-		return identMap.getOrDefault(reporter, null);
+		return states.getIdentBy(reporter);
 	}
 
 	private Deque<Content> talkQueue = new LinkedList<>();
@@ -314,8 +428,6 @@ public class BasePlayer implements Player {
 	 */
 	protected Agent declaredWolf;
 
-	private Map<Agent, Role> comingoutMap = new HashMap<>();
-
 	/**
 	 * Returns whether or not the agent has done CO.
 	 * 
@@ -323,7 +435,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent has done CO
 	 */
 	protected boolean isCo(Agent agent) {
-		return comingoutMap.containsKey(agent);
+		return getCoRole(agent) != null;
 	}
 
 	/**
@@ -333,7 +445,7 @@ public class BasePlayer implements Player {
 	 * @return true if the CO has been done
 	 */
 	protected boolean isCo(Role role) {
-		return comingoutMap.containsValue(role);
+		return states.getCoMask(role) != 0;
 	}
 
 	/**
@@ -343,7 +455,7 @@ public class BasePlayer implements Player {
 	 * @return null if the agent has not done CO
 	 */
 	protected Role getCoRole(Agent agent) {
-		return comingoutMap.getOrDefault(agent, null);
+		return states.getCoRole(agent);
 	}
 
 	/**
@@ -353,7 +465,7 @@ public class BasePlayer implements Player {
 	 * @return the list of the agents that has been done CO
 	 */
 	protected List<Agent> getProfessed(Role role) {
-		return comingoutMap.keySet().stream().filter(a -> getCoRole(a) == role).collect(Collectors.toList());
+		return states.toList(states.getCoMask(role));
 	}
 
 	private int talkListHead;
@@ -402,6 +514,16 @@ public class BasePlayer implements Player {
 		return metaInfo.getRoleEstimator(role).get(agent);
 	}
 
+	/**
+	 * Returns the version of the probabilities of the role, which is incremented whenever any of them changes.
+	 * 
+	 * @param role the role
+	 * @return the version of the probabilities
+	 */
+	protected long getProbVersion(Role role) {
+		return metaInfo.getRoleEstimator(role).getVersion();
+	}
+
 	/**
 	 * Overwrites the probability that the agent is the role, with new probability.
 	 * 
@@ -410,7 +532,7 @@ public class BasePlayer implements Player {
 	 * @param prob  new probability
 	 */
 	protected void overwriteProbOf(Agent agent, Role role, double prob) {
-		metaInfo.getRoleEstimator(role).put(agent, prob);
+		metaInfo.getRoleEstimator(role).overwrite(agent, prob);
 	}
 
 	/**
@@ -459,7 +581,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is like a seer
 	 */
 	protected boolean isLikeSeer(Agent agent) {
-		return agent != null && maxRole(agent) == Role.SEER;
+		return agent != null && getAssignedRole(agent) == Role.SEER;
 	}
 
 	/**
@@ -469,7 +591,104 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is like a werewolf
 	 */
 	protected boolean isLikeWolf(Agent agent) {
-		return agent != null && isGray(agent) && maxRole(agent) == Role.WEREWOLF;
+		return agent != null && isGray(agent) && getAssignedRole(agent) == Role.WEREWOLF;
+	}
+
+	private RoleAssignmentSolver solver = new RoleAssignmentSolver();
+
+	// roles in the village and their numbers
+	private Role[] villageRoles;
+	private int[] roleCounts;
+
+	private Agent[] villageAgents;
+	private double[][] assignmentProbs;
+	private boolean[][] assignmentAllowed;
+	// role assigned to each agent by index, null if not solved
+	private Role[] roleAssignment;
+	// version of the states and those of the probabilities of villageRoles when roleAssignment was solved
+	private long[] assignmentVersions;
+	// those versions at present
+	private long[] currentVersions;
+
+	/**
+	 * Returns the role of the agent in the most likely assignment of roles to all the agents.
+	 * 
+	 * <p>
+	 * The assignment keeps the number of each role and the known facts, such as the roles of this player and its fellow werewolves, and
+	 * the species judged by this player or revealed by the attack. It is solved again only when the facts or the probabilities change.
+	 * </p>
+	 * 
+	 * @param agent the agent
+	 * @return the assigned role, or the role with the maximum probability if the assignment is not available
+	 */
+	protected Role getAssignedRole(Agent agent) {
+		updateRoleAssignment();
+		Role role = roleAssignment != null && agent.getAgentIdx() >= 0 && agent.getAgentIdx() < roleAssignment.length
+				? roleAssignment[agent.getAgentIdx()] : null;
+		return role != null ? role : maxRole(agent);
+	}
+
+	private void initializeRoleAssignment(GameSetting gameSetting) {
+		List<Role> roles = new ArrayList<>();
+		for (Role role : gameInfo.getExistingRoles()) {
+			if (gameSetting.getRoleNum(role) > 0) {
+				roles.add(role);
+			}
+		}
+		villageRoles = roles.toArray(new Role[0]);
+		roleCounts = new int[villageRoles.length];
+		for (int r = 0; r < villageRoles.length; r++) {
+			roleCounts[r] = gameSetting.getRoleNum(villageRoles[r]);
+		}
+		villageAgents = gameInfo.getAgentList().toArray(new Agent[0]);
+		assignmentProbs = new double[villageAgents.length][villageRoles.length];
+		assignmentAllowed = new boolean[villageAgents.length][villageRoles.length];
+		roleAssignment = null;
+		assignmentVersions = new long[villageRoles.length + 1];
+		Arrays.fill(assignmentVersions, -1L);
+		currentVersions = new long[villageRoles.length + 1];
+	}
+
+	private void updateRoleAssignment() {
+		currentVersions[0] = states.getVersion();
+		for (int r = 0; r < villageRoles.length; r++) {
+			currentVersions[r + 1] = getProbVersion(villageRoles[r]);
+		}
+		if (Arrays.equals(currentVersions, assignmentVersions)) {
+			return;
+		}
+		System.arraycopy(currentVersions, 0, assignmentVersions, 0, currentVersions.length);
+		for (int i = 0; i < villageAgents.length; i++) {
+			for (int r = 0; r < villageRoles.length; r++) {
+				assignmentProbs[i][r] = getProbOf(villageAgents[i], villageRoles[r]);
+				assignmentAllowed[i][r] = isPossible(villageAgents[i], villageRoles[r]);
+			}
+		}
+		int[] result = solver.solve(assignmentProbs, assignmentAllowed, roleCounts);
+		if (result == null) {
+			roleAssignment = null;
+			return;
+		}
+		roleAssignment = new Role[Long.SIZE - Long.numberOfLeadingZeros(states.getAllMask())];
+		for (int i = 0; i < villageAgents.length; i++) {
+			roleAssignment[villageAgents[i].getAgentIdx()] = villageRoles[result[i]];
+		}
+	}
+
+	// returns false if the agent cannot be the role under the known facts
+	private boolean isPossible(Agent agent, Role role) {
+		Role knownRole = gameInfo.getRoleMap().get(agent);
+		if (knownRole != null) {
+			return role == knownRole;
+		}
+		if (role == Role.WEREWOLF && myRole == Role.WEREWOLF) {
+			// all the werewolves are known to a werewolf
+			return false;
+		}
+		if (isWolf(agent)) {
+			return role == Role.WEREWOLF;
+		}
+		return !isHuman(agent) || role != Role.WEREWOLF;
 	}
 
 	/**
@@ -528,8 +747,6 @@ public class BasePlayer implements Player {
 		return metaInfo.getRoleEstimator(role).descneding(agents);
 	}
 
-	private Map<Agent, Species> speciesMap = new HashMap<>();
-
 	/**
 	 * Returns whether or not the agent is human.
 	 * 
@@ -537,7 +754,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is human
 	 */
 	protected boolean isHuman(Agent agent) {
-		return speciesMap.getOrDefault(agent, Species.ANY) == Species.HUMAN;
+		return states.getSpecies(agent) == Species.HUMAN;
 	}
 
 	/**
@@ -546,7 +763,7 @@ public class BasePlayer implements Player {
 	 * @param agent the agent
 	 */
 	protected void setHuman(Agent agent) {
-		speciesMap.put(agent, Species.HUMAN);
+		states.setSpecies(agent, Species.HUMAN);
 	}
 
 	/**
@@ -556,7 +773,7 @@ public class BasePlayer implements Player {
 	 * @return the list of human agents
 	 */
 	protected List<Agent> getHuman(Collection<Agent> agents) {
-		return agents.stream().filter(a -> isHuman(a)).collect(Collectors.toList());
+		return select(agents, states.getHumanMask(), false);
 	}
 
 	/**
@@ -566,7 +783,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is unjudged
 	 */
 	protected boolean isGray(Agent agent) {
-		return speciesMap.getOrDefault(agent, Species.ANY) == Species.ANY;
+		return states.getSpecies(agent) == Species.ANY;
 	}
 
 	/**
@@ -575,7 +792,7 @@ public class BasePlayer implements Player {
 	 * @param agent the agent
 	 */
 	protected void setGray(Agent agent) {
-		speciesMap.put(agent, Species.ANY);
+		states.setSpecies(agent, Species.ANY);
 	}
 
 	/**
@@ -585,7 +802,13 @@ public class BasePlayer implements Player {
 	 * @return the list of unjudged agents
 	 */
 	protected List<Agent> getGray(Collection<Agent> agents) {
-		return agents.stream().filter(a -> isGray(a)).collect(Collectors.toList());
+		List<Agent> list = new ArrayList<>(agents.size());
+		for (Agent agent : agents) {
+			if (isGray(agent)) {
+				list.add(agent);
+			}
+		}
+		return list;
 	}
 
 	/**
@@ -595,7 +818,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is a werewolf
 	 */
 	protected boolean isWolf(Agent agent) {
-		return speciesMap.getOrDefault(agent, Species.ANY) == Species.WEREWOLF;
+		return states.getSpecies(agent) == Species.WEREWOLF;
 	}
 
 	/**
@@ -604,7 +827,7 @@ public class BasePlayer implements Player {
 	 * @param agent the agent
 	 */
 	protected void setWolf(Agent agent) {
-		speciesMap.put(agent, Species.WEREWOLF);
+		states.setSpecies(agent, Species.WEREWOLF);
 	}
 
 	/**
@@ -614,7 +837,7 @@ public class BasePlayer implements Player {
 	 * @return the list of agents whose species is werewolf
 	 */
 	protected List<Agent> getWolf(Collection<Agent> agents) {
-		return agents.stream().filter(a -> isWolf(a)).collect(Collectors.toList());
+		return select(agents, states.getWolfMask(), false);
 	}
 
 	/**
@@ -623,7 +846,7 @@ public class BasePlayer implements Player {
 	 * @return true if this player has found a werewolf
 	 */
 	protected boolean foundWolf() {
-		return speciesMap.values().contains(Species.WEREWOLF);
+		return states.getWolfMask() != 0;
 	}
 
 	/**
@@ -643,12 +866,8 @@ public class BasePlayer implements Player {
 	 * @return the agent list of fake seers
 	 */
 	protected List<Agent> getFakeSeers() {
-		if (myRole == Role.SEER) {
-			return getProfessed(Role.SEER);
-		} else {
-			return divinationReports.stream().filter(j -> conflicts(j))
-					.map(j -> j.getAgent()).distinct().collect(Collectors.toList());
-		}
+		updateDerivedStates();
+		return new ArrayList<>(fakeSeersCache);
 	}
 
 	/**
@@ -658,7 +877,8 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is a fake seer
 	 */
 	protected boolean isFakeSeer(Agent agent) {
-		return getFakeSeers().contains(agent);
+		updateDerivedStates();
+		return AgentStates.contains(fakeSeerMask, agent);
 	}
 
 	/**
@@ -667,12 +887,8 @@ public class BasePlayer implements Player {
 	 * @return the agent list of fake mediums
 	 */
 	protected List<Agent> getFakeMediums() {
-		if (myRole == Role.MEDIUM) {
-			return getProfessed(Role.MEDIUM);
-		} else {
-			return identReports.stream().filter(j -> conflicts(j))
-					.map(j -> j.getAgent()).distinct().collect(Collectors.toList());
-		}
+		updateDerivedStates();
+		return new ArrayList<>(fakeMediumsCache);
 	}
 
 	/**
@@ -682,7 +898,40 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is a fake medium
 	 */
 	protected boolean isFakeMedium(Agent agent) {
-		return getFakeMediums().contains(agent);
+		updateDerivedStates();
+		return AgentStates.contains(fakeMediumMask, agent);
+	}
+
+	// states derived from the states of agents, which are valid while the version of the states is derivedVersion
+	private long derivedVersion = -1;
+	private List<Agent> othersCache;
+	private List<Agent> aliveOthersCache;
+	private List<Agent> fakeSeersCache;
+	private List<Agent> fakeMediumsCache;
+	private long fakeSeerMask;
+	private long fakeMediumMask;
+
+	private void updateDerivedStates() {
+		if (derivedVersion == states.getVersion()) {
+			return;
+		}
+		othersCache = getOthers(gameInfo.getAgentList());
+		aliveOthersCache = states.toList(getAliveOthersMask());
+		fakeSeersCache = myRole == Role.SEER ? getProfessed(Role.SEER) : getConflictingReporters(divinationReports);
+		fakeSeerMask = AgentStates.maskOf(fakeSeersCache);
+		fakeMediumsCache = myRole == Role.MEDIUM ? getProfessed(Role.MEDIUM) : getConflictingReporters(identReports);
+		fakeMediumMask = AgentStates.maskOf(fakeMediumsCache);
+		derivedVersion = states.getVersion();
+	}
+
+	private List<Agent> getConflictingReporters(List<Judge> reports) {
+		List<Agent> reporters = new ArrayList<>();
+		for (Judge judge : reports) {
+			if (conflicts(judge) && !reporters.contains(judge.getAgent())) {
+				reporters.add(judge.getAgent());
+			}
+		}
+		return reporters;
 	}
 
 	/**
@@ -746,7 +995,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is alive
 	 */
 	protected boolean isAlive(Agent agent) {
-		return gameInfo.getStatusMap().get(agent) == Status.ALIVE;
+		return states.isAlive(agent);
 	}
 
 	/**
@@ -756,7 +1005,7 @@ public class BasePlayer implements Player {
 	 * @return true if the agent is dead
 	 */
 	protected boolean isDead(Agent agent) {
-		return gameInfo.getStatusMap().get(agent) == Status.DEAD;
+		return states.isDead(agent);
 	}
 
 	/**
@@ -766,7 +1015,7 @@ public class BasePlayer implements Player {
 	 * @return the list of alive agents
 	 */
 	protected List<Agent> getAlive(Collection<Agent> agents) {
-		return agents.stream().filter(a -> isAlive(a)).distinct().collect(Collectors.toList());
+		return select(agents, states.getAliveMask(), true);
 	}
 
 	/**
@@ -776,7 +1025,7 @@ public class BasePlayer implements Player {
 	 * @return the list of dead agents
 	 */
 	protected List<Agent> getDead(Collection<Agent> agents) {
-		return agents.stream().filter(a -> isDead(a)).distinct().collect(Collectors.toList());
+		return select(agents, states.getDeadMask(), true);
 	}
 
 	/**
@@ -843,29 +1092,26 @@ public class BasePlayer implements Player {
 		isPP = false;
 		me = gameInfo.getAgent();
 		myRole = gameInfo.getRole();
-		executedAgents.clear();
-		killedAgents.clear();
+		states.initialize(gameInfo.getAgentList());
+		states.updateStatus(gameInfo.getStatusMap());
 		divinationReports.clear();
-		divinationMap.clear();
 		identReports.clear();
-		identMap.clear();
 		myDivinations.clear();
 		myIdentifications.clear();
-		comingoutMap.clear();
 		estimateReasonMap.clear();
-		speciesMap.clear();
 		if (myRole != Role.WEREWOLF) {
-			gameInfo.getAgentList().forEach(a -> speciesMap.put(a, Species.ANY));
-			speciesMap.put(me, Species.HUMAN);
+			setHuman(me);
 		} else {
-			gameInfo.getAgentList().forEach(a -> speciesMap.put(a, Species.HUMAN));
-			gameInfo.getRoleMap().keySet().forEach(a -> speciesMap.put(a, Species.WEREWOLF));
+			gameInfo.getAgentList().forEach(a -> setHuman(a));
+			gameInfo.getRoleMap().keySet().forEach(a -> setWolf(a));
 		}
+		initializeRoleAssignment(gameSetting);
 	}
 
 	@Override
 	public void update(GameInfo gameInfo) {
 		this.gameInfo = gameInfo;
+		states.updateStatus(gameInfo.getStatusMap());
 
 		if (gameInfo.getDay() == date + 1) {
 			date = gameInfo.getDay();
@@ -878,23 +1124,31 @@ public class BasePlayer implements Player {
 			Talk talk = gameInfo.getTalkList().get(i);
 			lastTalkIdx = talk.getIdx();
 			Agent talker = talk.getAgent();
-			if (talker == me) {
+			if (talker == me || isSkipOrOver(talk)) {
 				continue;
 			}
-			Content content = new Content(talk.getText());
-			if (content.getSubject() == Content.UNSPEC) {
-				content = replaceSubject(content, talker);
-			}
-			parseSentence(content);
+			parseSentence(metaInfo.getTalkStore().getContent(talk));
 		}
 
 		if (gameInfo.getAgentList().size() == 5) {
-			getDead(getOthers()).forEach(a -> setHuman(a));
+			for (Agent agent : states.toList(states.getDeadMask() & ~AgentStates.bit(me))) {
+				setHuman(agent);
+			}
 		}
 
 		talkListHead = gameInfo.getTalkList().size();
 	}
 
+	/**
+	 * Returns whether or not the talk is Skip or Over, which needs not to be parsed.
+	 * 
+	 * @param talk the talk
+	 * @return true if the talk is Skip or Over
+	 */
+	protected static boolean isSkipOrOver(Talk talk) {
+		return Talk.SKIP.equals(talk.getText()) || Talk.OVER.equals(talk.getText());
+	}
+
 	/**
 	 * Parses the sentence recursively.
 	 * 
@@ -909,18 +1163,18 @@ public class BasePlayer implements Player {
 		}
 		switch (content.getTopic()) {
 		case COMINGOUT:
-			comingoutMap.put(content.getTarget(), content.getRole());
+			states.setCoRole(content.getTarget(), content.getRole());
 			if (content.getRole() == Role.WEREWOLF || content.getRole() == Role.POSSESSED) {
 				metaInfo.setPpAbility(content.getTarget(), true);
 			}
 			return;
 		case DIVINED:
 			divinationReports.add(new Judge(date, content.getSubject(), content.getTarget(), content.getResult()));
-			divinationMap.put(content.getSubject(), divinationReports.get(divinationReports.size() - 1));
+			states.setDivination(divinationReports.get(divinationReports.size() - 1));
 			return;
 		case IDENTIFIED:
 			identReports.add(new Judge(date, content.getSubject(), content.getTarget(), content.getResult()));
-			identMap.put(content.getSubject(), identReports.get(identReports.size() - 1));
+			states.setIdent(identReports.get(identReports.size() - 1));
 			return;
 		case OPERATOR:
 			parseOperator(content);
@@ -1000,13 +1254,13 @@ public class BasePlayer implements Player {
 
 	private void addExecutedAgent(Agent executedAgent) {
 		if (executedAgent != null) {
-			executedAgents.add(executedAgent);
+			states.setExecuted(executedAgent);
 		}
 	}
 
 	private void addKilledAgent(Agent killedAgent) {
 		if (killedAgent != null) {
-			killedAgents.add(killedAgent);
+			states.setKilled(killedAgent);
 			setHuman(killedAgent);
 		}
 	}
@@ -6,6 +6,7 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -18,7 +19,7 @@ import org.aiwolf.common.data.Role;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
 
-import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoModifier;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoOverlay;
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
 
 /**
@@ -31,6 +32,37 @@ public class BasePlayer5 extends BasePlayer {
 	private Map<Agent, Role> forwardEstimateMap = new HashMap<>();
 	private Map<Agent, Double> rateMap = new HashMap<>();
 
+	/**
+	 * The index of the role of the agent assigned no searched role, who is a villager.
+	 */
+	static final int NOT_ASSIGNED = -1;
+
+	private static final class SearchResult {
+		private final Role excludedRole;
+		private final long allowedMask;
+		// null if no assignment is found
+		private final Map<Agent, Role> estimateMap;
+
+		SearchResult(Role excludedRole, long allowedMask, Map<Agent, Role> estimateMap) {
+			this.excludedRole = excludedRole;
+			this.allowedMask = allowedMask;
+			this.estimateMap = estimateMap;
+		}
+	}
+
+	// results of the search, which are valid until the probabilities change
+	private List<SearchResult> searchResults = new ArrayList<>();
+
+	private Role[] searchedRoles;
+	private Agent[] others;
+	private long othersMask;
+	// probabilities of the searched roles and the villager of the others, and their versions
+	private Role[] probRoles;
+	private double[][] probs;
+	private long[] probVersions;
+	// whether or not each of the others can be the excluded role
+	private boolean[] allowed;
+
 	/**
 	 * Constructs BasePlayer5 with meta information.
 	 * 
@@ -48,6 +80,19 @@ public class BasePlayer5 extends BasePlayer {
 
 		forwardEstimateMap.clear();
 		getOthers().forEach(a -> forwardEstimateMap.put(a, Role.ANY));
+
+		others = getOthers().toArray(new Agent[0]);
+		othersMask = AgentStates.maskOf(getOthers());
+		allowed = new boolean[others.length];
+		searchedRoles = getSearchedRoles(getMyRole());
+		if (searchedRoles != null) {
+			probRoles = Arrays.copyOf(searchedRoles, searchedRoles.length + 1);
+			probRoles[searchedRoles.length] = Role.VILLAGER;
+			probs = new double[probRoles.length][others.length];
+			probVersions = new long[probRoles.length];
+			Arrays.fill(probVersions, -1L);
+		}
+		searchResults.clear();
 	}
 
 	/**
@@ -73,82 +118,133 @@ public class BasePlayer5 extends BasePlayer {
 	 * @param excludedAgents the agents to be excluded
 	 */
 	protected void updateEstimateMap(Role excludedRole, List<Agent> excludedAgents) {
-		Map<Role, List<Agent>> candidatesMap = new HashMap<>();
-		for (Role r : Arrays.asList(Role.WEREWOLF, Role.VILLAGER, Role.SEER, Role.POSSESSED)) {
-			if (r != excludedRole) {
-				candidatesMap.put(r, getOthers());
-			} else {
-				candidatesMap.put(r, getOthers().stream()
-						.filter(a -> excludedAgents != null && !excludedAgents.contains(a)).collect(Collectors.toList()));
-			}
+		Role[] roles = searchedRoles;
+		if (roles == null) {
+			return;
 		}
-		double bestValue = 0;
-		switch (getMyRole()) {
-		case WEREWOLF:
-			for (Agent seer : candidatesMap.get(Role.SEER)) {
-				for (Agent possessed : candidatesMap.get(Role.POSSESSED).stream().filter(a -> a != seer).collect(Collectors.toList())) {
-					Map<Agent, Role> estimateMap = new HashMap<>();
-					getOthers().forEach(a -> estimateMap.put(a, Role.VILLAGER));
-					estimateMap.put(seer, Role.SEER);
-					estimateMap.put(possessed, Role.POSSESSED);
-					double value = estimateMap.keySet().stream().mapToDouble(a -> getProbOf(a, estimateMap.get(a))).sum();
-					if (value > bestValue) {
-						bestValue = value;
-						setForwardEstimateMap(estimateMap);
-					}
+		updateProbs();
+		// the agents who can be the excluded role
+		long allowedMask = excludedAgents == null ? 0L : ~AgentStates.maskOf(excludedAgents);
+		if (!Arrays.asList(roles).contains(excludedRole) || (allowedMask & othersMask) == othersMask) {
+			excludedRole = null;
+			allowedMask = othersMask;
+		}
+		for (SearchResult result : searchResults) {
+			if (result.excludedRole == excludedRole && result.allowedMask == (allowedMask & othersMask)) {
+				if (result.estimateMap != null) {
+					setForwardEstimateMap(result.estimateMap);
 				}
+				return;
+			}
+		}
+
+		for (int i = 0; i < others.length; i++) {
+			allowed[i] = AgentStates.contains(allowedMask, others[i]);
+		}
+		int[] bestAssignment = searchAssignment(probs, Arrays.asList(roles).indexOf(excludedRole), allowed);
+		Map<Agent, Role> estimateMap = null;
+		if (bestAssignment != null) {
+			estimateMap = new HashMap<>();
+			for (int i = 0; i < others.length; i++) {
+				estimateMap.put(others[i], bestAssignment[i] == NOT_ASSIGNED ? Role.VILLAGER : roles[bestAssignment[i]]);
 			}
-			break;
+			setForwardEstimateMap(estimateMap);
+		}
+		searchResults.add(new SearchResult(excludedRole, allowedMask & othersMask, estimateMap));
+	}
+
+	// roles assigned to the others in the order of the nested loops, the rest are villagers
+	private static Role[] getSearchedRoles(Role myRole) {
+		switch (myRole) {
+		case WEREWOLF:
+			return new Role[] { Role.SEER, Role.POSSESSED };
 		case VILLAGER:
-			for (Agent seer : candidatesMap.get(Role.SEER)) {
-				for (Agent werewolf : candidatesMap.get(Role.WEREWOLF).stream().filter(a -> a != seer).collect(Collectors.toList())) {
-					for (Agent possessed : candidatesMap.get(Role.POSSESSED).stream().filter(a -> a != seer && a != werewolf).collect(Collectors.toList())) {
-						Map<Agent, Role> estimateMap = new HashMap<>();
-						getOthers().forEach(a -> estimateMap.put(a, Role.VILLAGER));
-						estimateMap.put(seer, Role.SEER);
-						estimateMap.put(werewolf, Role.WEREWOLF);
-						estimateMap.put(possessed, Role.POSSESSED);
-						double value = estimateMap.keySet().stream().mapToDouble(a -> getProbOf(a, estimateMap.get(a))).sum();
-						if (value > bestValue) {
-							bestValue = value;
-							setForwardEstimateMap(estimateMap);
-						}
-					}
+			return new Role[] { Role.SEER, Role.WEREWOLF, Role.POSSESSED };
+		case SEER:
+			return new Role[] { Role.WEREWOLF, Role.POSSESSED };
+		case POSSESSED:
+			return new Role[] { Role.SEER, Role.WEREWOLF };
+		default:
+			return null;
+		}
+	}
+
+	// reloads the probabilities and forgets the results of search if any of the probabilities has changed
+	private void updateProbs() {
+		boolean changed = false;
+		for (int r = 0; r < probRoles.length; r++) {
+			if (probVersions[r] != getProbVersion(probRoles[r])) {
+				probVersions[r] = getProbVersion(probRoles[r]);
+				for (int i = 0; i < others.length; i++) {
+					probs[r][i] = getProbOf(others[i], probRoles[r]);
 				}
+				changed = true;
 			}
-			break;
-		case SEER:
-			for (Agent werewolf : candidatesMap.get(Role.WEREWOLF)) {
-				for (Agent possessed : candidatesMap.get(Role.POSSESSED).stream().filter(a -> a != werewolf).collect(Collectors.toList())) {
-					Map<Agent, Role> estimateMap = new HashMap<>();
-					getOthers().forEach(a -> estimateMap.put(a, Role.VILLAGER));
-					estimateMap.put(werewolf, Role.WEREWOLF);
-					estimateMap.put(possessed, Role.POSSESSED);
-					double value = estimateMap.keySet().stream().mapToDouble(a -> getProbOf(a, estimateMap.get(a))).sum();
-					if (value > bestValue) {
-						bestValue = value;
-						setForwardEstimateMap(estimateMap);
+		}
+		if (changed) {
+			searchResults.clear();
+		}
+	}
+
+	/**
+	 * Searches the assignment of the searched roles to the others maximizing the sum of the probabilities of the assigned roles.
+	 * 
+	 * @param probs    the probabilities of each of the searched roles and the villager, the last row, of each of the others
+	 * @param excluded the index of the searched role which only the allowed agents can be, -1 if none
+	 * @param allowed  whether or not each of the others can be the excluded role
+	 * @return the index of the searched role assigned to each of the others, NOT_ASSIGNED if none, null if no assignment is found
+	 */
+	static int[] searchAssignment(double[][] probs, int excluded, boolean[] allowed) {
+		AssignmentSearch search = new AssignmentSearch(probs, excluded, allowed);
+		search.search(0);
+		return search.bestAssignment;
+	}
+
+	private static final class AssignmentSearch {
+		private final double[][] probs;
+		private final int numRoles;
+		private final int numOthers;
+		private final int excluded;
+		private final boolean[] allowed;
+		// index of the searched role assigned to each of the others, NOT_ASSIGNED if none
+		private final int[] assignment;
+		private int[] bestAssignment;
+		private double bestValue;
+
+		AssignmentSearch(double[][] probs, int excluded, boolean[] allowed) {
+			this.probs = probs;
+			this.excluded = excluded;
+			this.allowed = allowed;
+			numRoles = probs.length - 1;
+			numOthers = probs[0].length;
+			assignment = new int[numOthers];
+			Arrays.fill(assignment, NOT_ASSIGNED);
+		}
+
+		void search(int depth) {
+			if (depth == numRoles) {
+				// summed in the order of agents as before, so that the ties are broken in the same way
+				double value = 0;
+				for (int i = 0; i < numOthers; i++) {
+					value += probs[assignment[i] == NOT_ASSIGNED ? numRoles : assignment[i]][i];
+				}
+				if (value > bestValue) {
+					bestValue = value;
+					if (bestAssignment == null) {
+						bestAssignment = new int[numOthers];
 					}
+					System.arraycopy(assignment, 0, bestAssignment, 0, numOthers);
 				}
+				return;
 			}
-			break;
-		case POSSESSED:
-			for (Agent seer : candidatesMap.get(Role.SEER)) {
-				for (Agent werewolf : candidatesMap.get(Role.WEREWOLF).stream().filter(a -> a != seer).collect(Collectors.toList())) {
-					Map<Agent, Role> estimateMap = new HashMap<>();
-					getOthers().forEach(a -> estimateMap.put(a, Role.VILLAGER));
-					estimateMap.put(seer, Role.SEER);
-					estimateMap.put(werewolf, Role.WEREWOLF);
-					double value = estimateMap.keySet().stream().mapToDouble(a -> getProbOf(a, estimateMap.get(a))).sum();
-					if (value > bestValue) {
-						bestValue = value;
-						setForwardEstimateMap(estimateMap);
-					}
+			for (int i = 0; i < numOthers; i++) {
+				if (assignment[i] != NOT_ASSIGNED || (depth == excluded && !allowed[i])) {
+					continue;
 				}
+				assignment[i] = depth;
+				search(depth + 1);
+				assignment[i] = NOT_ASSIGNED;
 			}
-			break;
-		default:
-			break;
 		}
 	}
 
@@ -230,7 +326,7 @@ public class BasePlayer5 extends BasePlayer {
 	 * @return the fake game informaion
 	 */
 	protected GameInfo getFakeGameInfo(GameInfo gameInfo, Role fakeRole, Judge fakeDivination) {
-		return new GameInfoModifier(gameInfo).setFakeRole(fakeRole).setDivineResult(fakeDivination).toGameInfo();
+		return new GameInfoOverlay(gameInfo).setFakeRole(fakeRole).setDivineResult(fakeDivination);
 	}
 
 }
@@ -6,8 +6,6 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import static java.util.Comparator.*;
-
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Role;
 
@@ -31,7 +29,7 @@ public class Bodyguard extends Villager {
 
 	@Override
 	public Agent guard() {
-		return getAliveOthers().stream().max(comparing(a -> guardEval(a))).orElse(null);
+		return selectMax(getAliveOthersMask(), a -> guardEval(a));
 	}
 
 	private double guardEval(Agent agent) {
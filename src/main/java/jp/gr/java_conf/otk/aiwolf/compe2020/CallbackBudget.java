@@ -0,0 +1,256 @@
+/**
+ * CallbackBudget.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020;
+
+import java.util.Arrays;
+
+import org.aiwolf.common.net.GameSetting;
+
+/**
+ * Budget of time for the requests from the server.
+ * 
+ * <p>
+ * The server gives each request a time limit, within which the player must be updated and must return its decision. The time of each
+ * phase of a request, the estimation, the update and the decision, is measured, and its moving average predicts whether the phase can
+ * be done in the rest of the budget, which is a part of the time limit leaving a margin for the communication. A phase predicted to
+ * overrun is to be replaced by a cheap fallback, but not in two successive requests, so that the estimate is at most one request old
+ * and the averages keep being measured. The requests, the overruns of the time limit and the fallbacks are counted per callback to be
+ * reported at the end of the game.
+ * </p>
+ * 
+ * @author otsuki
+ */
+public class CallbackBudget {
+
+	/**
+	 * Callbacks which finish the requests.
+	 */
+	public enum Callback {
+		DAY_START, TALK, WHISPER, VOTE, ATTACK, DIVINE, GUARD
+	}
+
+	/**
+	 * Phases of a request.
+	 */
+	public enum Phase {
+		ESTIMATION, UPDATE, DECISION
+	}
+
+	/**
+	 * The part of the time limit to be used.
+	 */
+	public static final double SAFETY_RATIO = 0.7;
+
+	// weight of the latest time in the moving averages
+	private static final double ALPHA = 0.2;
+
+	private static final int REQUESTS = 0;
+	private static final int OVERRUNS = 1;
+	private static final int FALLBACKS = 2;
+
+	// time limit in nanoseconds, 0 if unlimited
+	private long timeLimit;
+	// start of the current request, -1 if no request is in progress
+	private long requestStart = -1;
+	// time of each phase in the current request
+	private long[] requestTimes = new long[Phase.values().length];
+
+	// moving averages of the time of each phase, and those of the decision of each callback, kept throughout the games
+	private double[] phaseAverages = new double[Phase.values().length];
+	private double[] decisionAverages = new double[Callback.values().length];
+
+	private boolean isEstimationSkipped;
+	private boolean[] isFallenBack = new boolean[Callback.values().length];
+
+	// statistics of the game per callback
+	private long[][] counts = new long[Callback.values().length][3];
+	private long[] maxTimes = new long[Callback.values().length];
+	private long[][] phaseTotals = new long[Callback.values().length][Phase.values().length];
+
+	/**
+	 * Sets the time limit of the game and clears the statistics.
+	 * 
+	 * @param gameSetting the setting of the game
+	 */
+	public void initialize(GameSetting gameSetting) {
+		timeLimit = gameSetting.getTimeLimit() > 0 ? gameSetting.getTimeLimit() * 1000000L : 0L;
+		requestStart = -1;
+		isEstimationSkipped = false;
+		Arrays.fill(isFallenBack, false);
+		for (long[] c : counts) {
+			Arrays.fill(c, 0L);
+		}
+		Arrays.fill(maxTimes, 0L);
+		for (long[] t : phaseTotals) {
+			Arrays.fill(t, 0L);
+		}
+	}
+
+	/**
+	 * Starts a request, which is called on the arrival of the information of the game.
+	 */
+	public void startRequest() {
+		requestStart = System.nanoTime();
+		Arrays.fill(requestTimes, 0L);
+	}
+
+	private long getRemainingTime() {
+		if (requestStart < 0) {
+			startRequest();
+		}
+		return (long) (timeLimit * SAFETY_RATIO) - (System.nanoTime() - requestStart);
+	}
+
+	/**
+	 * Returns whether or not the estimation should be done in the current request.
+	 * 
+	 * @return false if the estimation, the update and the decision are predicted to overrun the budget
+	 */
+	public boolean canEstimate() {
+		if (timeLimit == 0 || isEstimationSkipped) {
+			isEstimationSkipped = false;
+			return true;
+		}
+		double predicted = phaseAverages[Phase.ESTIMATION.ordinal()] + phaseAverages[Phase.UPDATE.ordinal()] + phaseAverages[Phase.DECISION.ordinal()];
+		isEstimationSkipped = predicted > getRemainingTime();
+		return !isEstimationSkipped;
+	}
+
+	/**
+	 * Returns whether or not the decision should be made in the current request.
+	 * 
+	 * @param callback the callback of the decision
+	 * @return false if the decision is predicted to overrun the budget
+	 */
+	public boolean canDecide(Callback callback) {
+		int c = callback.ordinal();
+		if (timeLimit == 0 || isFallenBack[c]) {
+			isFallenBack[c] = false;
+			return true;
+		}
+		isFallenBack[c] = decisionAverages[c] > getRemainingTime();
+		return !isFallenBack[c];
+	}
+
+	/**
+	 * Records the time of the phase.
+	 * 
+	 * @param phase the phase
+	 * @param start the value of System.nanoTime() at the start of the phase
+	 */
+	public void record(Phase phase, long start) {
+		long time = System.nanoTime() - start;
+		requestTimes[phase.ordinal()] += time;
+		phaseAverages[phase.ordinal()] = average(phaseAverages[phase.ordinal()], time);
+	}
+
+	/**
+	 * Records the time of the decision.
+	 * 
+	 * <p>
+	 * The day start, which is much longer than the other decisions and is not preceded by the estimation, is averaged only in its own
+	 * slot, so as not to inflate the average of the decision phase predicting the requests of the talk and the others.
+	 * </p>
+	 * 
+	 * @param callback the callback of the decision
+	 * @param start    the value of System.nanoTime() at the start of the decision
+	 */
+	public void recordDecision(Callback callback, long start) {
+		long time = System.nanoTime() - start;
+		requestTimes[Phase.DECISION.ordinal()] += time;
+		if (callback != Callback.DAY_START) {
+			phaseAverages[Phase.DECISION.ordinal()] = average(phaseAverages[Phase.DECISION.ordinal()], time);
+		}
+		decisionAverages[callback.ordinal()] = average(decisionAverages[callback.ordinal()], time);
+	}
+
+	private static double average(double average, long time) {
+		return average == 0 ? time : (1 - ALPHA) * average + ALPHA * time;
+	}
+
+	/**
+	 * Finishes the current request.
+	 * 
+	 * @param callback   the callback which finishes the request
+	 * @param isFallback true if the decision has been replaced by the fallback
+	 */
+	public void finishRequest(Callback callback, boolean isFallback) {
+		if (requestStart < 0) {
+			return;
+		}
+		int c = callback.ordinal();
+		long elapsed = System.nanoTime() - requestStart;
+		counts[c][REQUESTS]++;
+		if (timeLimit > 0 && elapsed > timeLimit) {
+			counts[c][OVERRUNS]++;
+		}
+		if (isFallback) {
+			counts[c][FALLBACKS]++;
+		}
+		maxTimes[c] = Math.max(maxTimes[c], elapsed);
+		for (int p = 0; p < requestTimes.length; p++) {
+			phaseTotals[c][p] += requestTimes[p];
+		}
+		requestStart = -1;
+	}
+
+	/**
+	 * Returns the number of the requests of the callback overrunning the time limit in the game.
+	 * 
+	 * @param callback the callback
+	 * @return the number of the overruns
+	 */
+	public long getOverrunCount(Callback callback) {
+		return counts[callback.ordinal()][OVERRUNS];
+	}
+
+	/**
+	 * Returns the number of the fallbacks of the callback in the game.
+	 * 
+	 * @param callback the callback
+	 * @return the number of the fallbacks
+	 */
+	public long getFallbackCount(Callback callback) {
+		return counts[callback.ordinal()][FALLBACKS];
+	}
+
+	/**
+	 * Returns whether or not any request has overrun the time limit or fallen back in the game.
+	 * 
+	 * @return true if any request has overrun or fallen back
+	 */
+	public boolean hasOverrun() {
+		for (Callback callback : Callback.values()) {
+			if (getOverrunCount(callback) > 0 || getFallbackCount(callback) > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the report of the game, a line per callback, with the times in milliseconds.
+	 * 
+	 * @return the report
+	 */
+	public String getReport() {
+		StringBuilder sb = new StringBuilder(String.format("%-9s %8s %8s %8s %8s %10s %10s %10s%n", "callback", "requests", "overruns", "fallback",
+				"max", "estimation", "update", "decision"));
+		for (Callback callback : Callback.values()) {
+			int c = callback.ordinal();
+			long n = counts[c][REQUESTS];
+			if (n == 0) {
+				continue;
+			}
+			sb.append(String.format("%-9s %8d %8d %8d %8.1f %10.1f %10.1f %10.1f%n", callback, n, counts[c][OVERRUNS], counts[c][FALLBACKS],
+					maxTimes[c] / 1.0e6, phaseTotals[c][Phase.ESTIMATION.ordinal()] / 1.0e6 / n, phaseTotals[c][Phase.UPDATE.ordinal()] / 1.0e6 / n,
+					phaseTotals[c][Phase.DECISION.ordinal()] / 1.0e6 / n));
+		}
+		return sb.toString();
+	}
+
+}
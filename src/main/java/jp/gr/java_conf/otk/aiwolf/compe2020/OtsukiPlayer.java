@@ -6,15 +6,23 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
+import static java.util.Comparator.*;
+
+import java.util.Comparator;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Player;
 import org.aiwolf.common.data.Role;
+import org.aiwolf.common.data.Talk;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
 
+import jp.gr.java_conf.otk.aiwolf.compe2020.CallbackBudget.Callback;
+import jp.gr.java_conf.otk.aiwolf.compe2020.CallbackBudget.Phase;
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.RoleEstimator;
 
 /**
  * Team otsuki's player.
@@ -30,6 +38,11 @@ public class OtsukiPlayer implements Player {
 
 	private Player player;
 
+	private CallbackBudget budget = new CallbackBudget();
+
+	// true if the report of the time budget is output to stderr
+	private boolean isDebug = false;
+
 	/**
 	 * Constructs an OtsukiPlayer.
 	 */
@@ -41,17 +54,21 @@ public class OtsukiPlayer implements Player {
 
 	@Override
 	public Agent attack() {
-		return player.attack();
+		return decide(Callback.ATTACK, () -> player.attack(), () -> selectByEstimate(Role.SEER, true));
 	}
 
 	@Override
 	public void dayStart() {
+		// the day can not be started without the player
+		long start = System.nanoTime();
 		player.dayStart();
+		budget.recordDecision(Callback.DAY_START, start);
+		budget.finishRequest(Callback.DAY_START, false);
 	}
 
 	@Override
 	public Agent divine() {
-		return player.divine();
+		return decide(Callback.DIVINE, () -> player.divine(), () -> selectByEstimate(Role.WEREWOLF, true));
 	}
 
 	@Override
@@ -66,6 +83,10 @@ public class OtsukiPlayer implements Player {
 		}
 
 		player.finish();
+
+		if (isDebug && budget.hasOverrun()) {
+			System.err.print(budget.getReport());
+		}
 	}
 
 	@Override
@@ -75,35 +96,69 @@ public class OtsukiPlayer implements Player {
 
 	@Override
 	public Agent guard() {
-		return player.guard();
+		return decide(Callback.GUARD, () -> player.guard(), () -> selectByEstimate(Role.WEREWOLF, false));
 	}
 
 	@Override
 	public void initialize(GameInfo gameInfo, GameSetting gameSetting) {
+		this.gameInfo = gameInfo;
+		budget.initialize(gameSetting);
 		metaInfo.initialize(gameInfo);
 		player.initialize(gameInfo, gameSetting);
 	}
 
 	@Override
 	public String talk() {
-		return player.talk();
+		return decide(Callback.TALK, () -> player.talk(), () -> Talk.SKIP);
 	}
 
 	@Override
 	public void update(GameInfo gameInfo) {
 		this.gameInfo = gameInfo;
-		metaInfo.update(gameInfo);
+		budget.startRequest();
+		// the estimate of the last update is used if the estimation leaves no time for the decision
+		if (budget.canEstimate()) {
+			long start = System.nanoTime();
+			metaInfo.update(gameInfo);
+			budget.record(Phase.ESTIMATION, start);
+		}
+		long start = System.nanoTime();
 		player.update(gameInfo);
+		budget.record(Phase.UPDATE, start);
 	}
 
 	@Override
 	public Agent vote() {
-		return player.vote();
+		// the possessed votes for the agent least likely to be a werewolf, not for its fellow
+		return decide(Callback.VOTE, () -> player.vote(), () -> selectByEstimate(Role.WEREWOLF, gameInfo.getRole() != Role.POSSESSED));
 	}
 
 	@Override
 	public String whisper() {
-		return player.whisper();
+		return decide(Callback.WHISPER, () -> player.whisper(), () -> Talk.SKIP);
+	}
+
+	// makes the decision by the player, or by the fallback if the decision is predicted to overrun the budget
+	private <T> T decide(Callback callback, Supplier<T> decision, Supplier<T> fallback) {
+		if (!budget.canDecide(callback)) {
+			T result = fallback.get();
+			budget.finishRequest(callback, true);
+			return result;
+		}
+		long start = System.nanoTime();
+		T result = decision.get();
+		budget.recordDecision(callback, start);
+		budget.finishRequest(callback, false);
+		return result;
+	}
+
+	// cheap decision by the last estimate, choosing among the alive others except my fellow werewolves
+	private Agent selectByEstimate(Role role, boolean isMax) {
+		RoleEstimator estimator = metaInfo.getRoleEstimator(role);
+		Comparator<Agent> comparator = comparingDouble(a -> estimator.getOrDefault(a, 0.0));
+		return gameInfo.getAliveAgentList().stream()
+				.filter(a -> a != gameInfo.getAgent() && (gameInfo.getRole() != Role.WEREWOLF || gameInfo.getRoleMap().get(a) != Role.WEREWOLF))
+				.max(isMax ? comparator : comparator.reversed()).orElse(null);
 	}
 
 }
@@ -8,6 +8,7 @@ package jp.gr.java_conf.otk.aiwolf.compe2020;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Judge;
@@ -15,9 +16,8 @@ import org.aiwolf.common.data.Role;
 import org.aiwolf.common.data.Species;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
-import org.aiwolf.common.net.JudgeToSend;
 
-import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoModifier;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoOverlay;
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
 
 /**
@@ -50,30 +50,35 @@ public class Possessed extends BasePlayer {
 		fakeDivination = null;
 		innerPlayer = new Seer(fakeMetaInfo);
 		GameInfo fakeGameInfo = getFakeGameInfo(gameInfo);
-		fakeMetaInfo.initialize(fakeGameInfo);
+		fakeMetaInfo.initialize(fakeGameInfo, getMetaInfo());
 		innerPlayer.initialize(fakeGameInfo, gameSetting);
 		divinedList.clear();
 	}
 
 	private GameInfo getFakeGameInfo(GameInfo gameInfo) {
-		GameInfoModifier gim = new GameInfoModifier(gameInfo);
-		gim.setFakeRole(Role.SEER);
-		if (fakeDivination != null) {
-			gim.setDivineResult(new JudgeToSend(fakeDivination));
-		}
-		return gim.toGameInfo();
+		return new GameInfoOverlay(gameInfo).setFakeRole(Role.SEER).setDivineResult(fakeDivination);
 	}
 
 	@Override
 	public void update(GameInfo gameInfo) {
 		boolean isFakeDivineTime = getDate() > -1 && gameInfo.getDay() == getDate() + 1;
-		super.update(gameInfo);
-
 		if (isFakeDivineTime) {
+			// the fake divination depends on the real world updated
+			super.update(gameInfo);
 			fakeDivination = nextJudge();
+			updateFakeWorld(getFakeGameInfo(gameInfo));
+		} else {
+			// the features of the fake world are copied from those of the real world, which has been updated before this
+			GameInfo fakeGameInfo = getFakeGameInfo(gameInfo);
+			fakeMetaInfo.update(fakeGameInfo);
+			// only the inner player is updated concurrently with this player
+			CompletableFuture<Void> fakeUpdate = runAsync(() -> innerPlayer.update(fakeGameInfo));
+			super.update(gameInfo);
+			join(fakeUpdate);
 		}
+	}
 
-		GameInfo fakeGameInfo = getFakeGameInfo(gameInfo);
+	private void updateFakeWorld(GameInfo fakeGameInfo) {
 		fakeMetaInfo.update(fakeGameInfo);
 		innerPlayer.update(fakeGameInfo);
 	}
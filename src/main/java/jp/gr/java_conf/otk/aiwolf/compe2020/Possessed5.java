@@ -6,9 +6,6 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import java.util.Deque;
-import java.util.LinkedList;
-
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Judge;
 import org.aiwolf.common.data.Role;
@@ -16,7 +13,7 @@ import org.aiwolf.common.data.Species;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
 
-import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoModifier;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoLog;
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
 
 /**
@@ -29,7 +26,7 @@ public class Possessed5 extends BasePlayer5 {
 	private BasePlayer5 innerSeer;
 	private MetaInfo fakeMetaInfo;
 	private Agent divinedHuman;
-	private Deque<GameInfo> gameInfoList = new LinkedList<>();
+	private GameInfoLog gameInfoLog = new GameInfoLog();
 
 	/**
 	 * Constructs Possessed5 with meta information.
@@ -47,7 +44,7 @@ public class Possessed5 extends BasePlayer5 {
 	public void initialize(GameInfo gameInfo, GameSetting gameSetting) {
 		super.initialize(gameInfo, gameSetting);
 		divinedHuman = null;
-		gameInfoList.clear();
+		gameInfoLog.clear();
 
 		GameInfo fakeGameInfo = getFakeGameInfo(gameInfo, Role.SEER, null);
 		fakeMetaInfo.initialize(fakeGameInfo);
@@ -58,7 +55,7 @@ public class Possessed5 extends BasePlayer5 {
 	public void update(GameInfo gameInfo) {
 		super.update(gameInfo);
 		if (getDate() > 0) {
-			gameInfoList.offer(new GameInfoModifier(gameInfo).toGameInfo());
+			gameInfoLog.record(gameInfo);
 		} else {
 			GameInfo fakeGameInfo = getFakeGameInfo(gameInfo, Role.SEER, null);
 			fakeMetaInfo.update(fakeGameInfo);
@@ -80,21 +77,21 @@ public class Possessed5 extends BasePlayer5 {
 				enqueueTalk(divinedContent(getMe(), werewolf, Species.HUMAN));
 				divinedHuman = werewolf;
 				Judge fakeDivination = new Judge(getDate(), getMe(), divinedHuman, Species.HUMAN);
-				GameInfo fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				GameInfo fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.dayStart();
-				fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.talk();
-				fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.talk();
 				break;
 			default:
-				fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, new Judge(getDate(), getMe(), divinedHuman, Species.HUMAN));
+				fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, new Judge(getDate(), getMe(), divinedHuman, Species.HUMAN));
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.talk();
@@ -54,7 +54,8 @@ public class RoleAssignPlayer implements Player {
 	 */
 	public RoleAssignPlayer(MetaInfo metaInfo) {
 		this.metaInfo = metaInfo;
-		fakeMetaInfo = new MetaInfo();
+		// the fake world shares the parsed talks with the real world
+		fakeMetaInfo = new MetaInfo(metaInfo.getTalkStore());
 
 		villager = new Villager(metaInfo);
 		seer = new Seer(metaInfo);
@@ -6,8 +6,6 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import static java.util.Comparator.*;
-
 import java.util.List;
 
 import org.aiwolf.client.lib.Content;
@@ -49,7 +47,7 @@ public class Seer extends Villager {
 
 	@Override
 	protected void chooseVoteCandidate0() {
-		voteCandidate = getAliveOthers().stream().max(comparing(a -> voteEval(a))).orElse(null);
+		voteCandidate = selectMax(getAliveOthersMask(), a -> voteEval(a));
 		getVoteReasonMap().put(getMe(), voteCandidate);
 	}
 
@@ -93,7 +91,7 @@ public class Seer extends Villager {
 
 	@Override
 	public Agent divine() {
-		return getGray(getAliveOthers()).stream().max(comparing(a -> divineEval(a))).orElse(null);
+		return selectMax(getAliveOthersMask() & getStates().getGrayMask(), a -> divineEval(a));
 	}
 
 	private double divineEval(Agent agent) {
@@ -6,8 +6,6 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import static java.util.Comparator.*;
-
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Role;
 
@@ -35,10 +33,10 @@ public class Villager extends BasePlayer {
 	}
 
 	protected void chooseVoteCandidate0() {
-		voteCandidate = getAliveOthers().stream().max(comparing(a -> voteEval1(a))).orElse(null);
+		voteCandidate = selectMax(getAliveOthersMask(), a -> voteEval1(a));
 		getVoteReasonMap().put(getMe(), voteCandidate);
-		if (getVoteReasonMap().getVoteCount(voteCandidate) < getAliveOthers().size() * 0.5) {
-			voteCandidate = getAliveOthers().stream().max(comparing(a -> voteEval2(a))).orElse(null);
+		if (getVoteReasonMap().getVoteCount(voteCandidate) < Long.bitCount(getAliveOthersMask()) * 0.5) {
+			voteCandidate = selectMax(getAliveOthersMask(), a -> voteEval2(a));
 			getVoteReasonMap().put(getMe(), voteCandidate);
 		}
 	}
@@ -6,15 +6,10 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import static java.util.Comparator.*;
-
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
 
 import org.aiwolf.client.lib.Content;
 import org.aiwolf.client.lib.Operator;
@@ -29,16 +24,10 @@ import org.aiwolf.common.data.Agent;
 public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 
 	private static final long serialVersionUID = -1706725487037832992L;
-	private Map<Agent, Integer> voteCountMap = new HashMap<>();
+	// the number of votes of each voted agent, updated on every put and remove
+	private AgentTally voteTally = new AgentTally();
 	private boolean isChanged = false;
 
-	private void countVote() {
-		voteCountMap.clear();
-		keySet().stream().map(voter -> get(voter).getKey()).distinct().forEach(voted -> {
-			voteCountMap.put(voted, (int) keySet().stream().filter(a -> get(a).getKey() == voted).count());
-		});
-	}
-
 	/**
 	 * Returns whether or not there is modification since last call of this method.
 	 * 
@@ -62,7 +51,6 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 		}
 		if (voted == null) {
 			remove(voter);
-			countVote();
 			return true;
 		}
 		Entry<Agent, Content> lastEntry = get(voter);
@@ -70,10 +58,28 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 			isChanged = true;
 		}
 		put(voter, new SimpleEntry<Agent, Content>(voted, reason));
-		countVote();
 		return true;
 	}
 
+	@Override
+	public Entry<Agent, Content> put(Agent voter, Entry<Agent, Content> vote) {
+		Entry<Agent, Content> lastEntry = super.put(voter, vote);
+		if (lastEntry != null) {
+			voteTally.decrement(lastEntry.getKey());
+		}
+		voteTally.increment(vote.getKey());
+		return lastEntry;
+	}
+
+	@Override
+	public Entry<Agent, Content> remove(Object voter) {
+		Entry<Agent, Content> lastEntry = super.remove(voter);
+		if (lastEntry != null) {
+			voteTally.decrement(lastEntry.getKey());
+		}
+		return lastEntry;
+	}
+
 	/**
 	 * Associates vote target with voter.
 	 * 
@@ -133,7 +139,7 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	 * @return the number of votes
 	 */
 	public int getVoteCount(Agent voted) {
-		return voteCountMap.getOrDefault(voted, 0);
+		return voteTally.getCount(voted);
 	}
 
 	/**
@@ -142,7 +148,7 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	 * @return the total number of votes
 	 */
 	public int getVoteCount() {
-		return voteCountMap.keySet().stream().mapToInt(a -> getVoteCount(a)).sum();
+		return voteTally.getTotal();
 	}
 
 	/**
@@ -152,8 +158,7 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	 * @return a list of agents
 	 */
 	public List<Agent> getOrderedList(List<Agent> excludes) {
-		return voteCountMap.keySet().stream().filter(a -> !excludes.contains(a))
-				.sorted(comparing(a -> getVoteCount(a), reverseOrder())).collect(Collectors.toList());
+		return voteTally.getOrderedList(excludes);
 	}
 
 	/**
@@ -200,7 +205,7 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	@Override
 	public void clear() {
 		super.clear();
-		voteCountMap.clear();
+		voteTally.clear();
 	}
 
 	/**
@@ -210,8 +215,7 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	 * @return the top winning agent
 	 */
 	public Agent getTop(Agent... excludes) {
-		return voteCountMap.keySet().stream().filter(a -> !Arrays.asList(excludes).contains(a))
-				.max(comparing(a -> getVoteCount(a))).orElse(null);
+		return voteTally.getTop(Arrays.asList(excludes));
 	}
 
 	/**
@@ -220,9 +224,7 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	 * @return a list of agents
 	 */
 	public List<Agent> getWinners() {
-		List<Agent> agents = values().stream().map(e -> e.getKey()).distinct().collect(Collectors.toList());
-		int max = agents.stream().map(a -> getVoteCount(a)).max(Comparator.naturalOrder()).orElse(0);
-		return agents.stream().filter(a -> getVoteCount(a) == max).collect(Collectors.toList());
+		return voteTally.getTopList();
 	}
 
 	/**
@@ -232,7 +234,8 @@ public class VoteReasonMap extends HashMap<Agent, Entry<Agent, Content>> {
 	 * @return true if the agent is a winner
 	 */
 	public boolean isWinner(Agent agent) {
-		return getWinners().contains(agent);
+		int count = getVoteCount(agent);
+		return count > 0 && voteTally.getCount(voteTally.getOrderedList().get(0)) == count;
 	}
 
 }
@@ -10,7 +10,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.aiwolf.client.lib.Content;
 import org.aiwolf.client.lib.Operator;
@@ -27,21 +26,11 @@ public class VoteRequestCounter extends ArrayList<Content> {
 
 	private Map<Agent, Agent> agentRequestMap = new HashMap<>();
 
-	private Map<Agent, Integer> agentCountMap = new HashMap<>();
-
-	private List<Agent> orderedAgentList;
+	// the number of requests for each requested agent, updated only when a requester changes the request
+	private AgentTally requestTally = new AgentTally();
 
 	private boolean isChanged = false;
 
-	private void count() {
-		agentCountMap.clear();
-		List<Agent> votedAgents = agentRequestMap.values().stream().distinct().collect(Collectors.toList());
-		for (Agent agent : votedAgents) {
-			int count = (int) agentRequestMap.values().stream().filter(a -> a == agent).count();
-			agentCountMap.put(agent, count);
-		}
-	}
-
 	@Override
 	public boolean add(Content content) {
 		Agent requester = content.getSubject();
@@ -52,10 +41,11 @@ public class VoteRequestCounter extends ArrayList<Content> {
 				Agent voted = c.getTarget();
 				if (!agentRequestMap.containsKey(requester) || agentRequestMap.get(requester) != voted) {
 					isChanged = true;
+					if (agentRequestMap.containsKey(requester)) {
+						requestTally.decrement(agentRequestMap.get(requester));
+					}
 					agentRequestMap.put(requester, voted);
-					count();
-					orderedAgentList = agentCountMap.keySet().stream()
-							.sorted((a1, a2) -> getCount(a2) - getCount(a1)).collect(Collectors.toList());
+					requestTally.increment(voted);
 				}
 				return true;
 			}
@@ -79,7 +69,7 @@ public class VoteRequestCounter extends ArrayList<Content> {
 	 * @return the number of votes for the agent
 	 */
 	public int getCount(Agent agent) {
-		return agentCountMap.containsKey(agent) ? agentCountMap.get(agent) : 0;
+		return requestTally.getCount(agent);
 	}
 
 	/**
@@ -88,7 +78,7 @@ public class VoteRequestCounter extends ArrayList<Content> {
 	 * @return the sorted list of agents
 	 */
 	public List<Agent> getOrderedAgentList() {
-		return orderedAgentList;
+		return requestTally.getOrderedList();
 	}
 
 	/**
@@ -97,9 +87,8 @@ public class VoteRequestCounter extends ArrayList<Content> {
 	 * @return the list of agents having the maximum number of votes
 	 */
 	public List<Agent> getTopAgentList() {
-		if (orderedAgentList != null && !orderedAgentList.isEmpty()) {
-			int max = getCount(orderedAgentList.get(0));
-			return orderedAgentList.stream().filter(a -> getCount(a) == max).collect(Collectors.toList());
+		if (!requestTally.getOrderedList().isEmpty()) {
+			return requestTally.getTopList();
 		}
 		return null;
 	}
@@ -117,10 +106,7 @@ public class VoteRequestCounter extends ArrayList<Content> {
 	public void clear() {
 		super.clear();
 		agentRequestMap.clear();
-		agentCountMap.clear();
-		if (orderedAgentList != null) {
-			orderedAgentList.clear();
-		}
+		requestTally.clear();
 	}
 
 }
@@ -6,8 +6,6 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import static java.util.Comparator.*;
-
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -16,6 +14,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.aiwolf.client.lib.Content;
@@ -26,9 +25,8 @@ import org.aiwolf.common.data.Species;
 import org.aiwolf.common.data.Talk;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
-import org.aiwolf.common.net.JudgeToSend;
 
-import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoModifier;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoOverlay;
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
 
 /**
@@ -97,55 +95,58 @@ public class Werewolf extends BasePlayer {
 			break;
 		}
 		GameInfo fakeGameInfo = getFakeGameInfo(initialGameInfo);
-		fakeMetaInfo.initialize(fakeGameInfo);
+		fakeMetaInfo.initialize(fakeGameInfo, getMetaInfo());
 		innerPlayer.initialize(fakeGameInfo, gameSetting);
 		enqueueWhisper(coContent(getMe(), getMe(), fakeRole));
 	}
 
 	private GameInfo getFakeGameInfo(GameInfo gameInfo) {
-		GameInfoModifier gim = new GameInfoModifier(gameInfo);
-		gim.setFakeRole(fakeRole);
+		GameInfoOverlay overlay = new GameInfoOverlay(gameInfo).setFakeRole(fakeRole);
 		switch (fakeRole) {
 		case SEER:
 			if (fakeDivineTarget != null) {
 				Judge fakeJudge = new Judge(gameInfo.getDay(), getMe(), fakeDivineTarget, fakeResult);
-				gim.setDivineResult(new JudgeToSend(fakeJudge));
+				overlay.setDivineResult(fakeJudge);
 			}
 			break;
 		case MEDIUM:
 			Agent executed = gameInfo.getExecutedAgent();
 			if (executed != null) {
 				Judge fakeJudge = new Judge(gameInfo.getDay(), getMe(), executed, fakeResult);
-				gim.setMediumResult(new JudgeToSend(fakeJudge));
+				overlay.setMediumResult(fakeJudge);
 			}
 			break;
 		default:
 			break;
 		}
-		return gim.toGameInfo();
+		return overlay;
 	}
 
 	@Override
 	public void update(GameInfo gameInfo) {
-		boolean isFakeDivineTime = getDate() > -1 && gameInfo.getDay() == getDate() + 1;
-		super.update(gameInfo);
-
-		if (isFakeDivineTime) {
+		// the fake judge depends only on the fake world before this update
+		if (getDate() > -1 && gameInfo.getDay() == getDate() + 1) {
 			fakeDivineTarget = fakeRole == Role.SEER ? innerPlayer.divine() : null;
 			fakeResult = nextJudge();
 		}
 
+		// the features of the fake world are copied from those of the real world, which has been updated before this
 		GameInfo fakeGameInfo = getFakeGameInfo(gameInfo);
 		fakeMetaInfo.update(fakeGameInfo);
-		innerPlayer.update(fakeGameInfo);
-
-		getWolf(gameInfo.getAgentList()).forEach(a -> innerPlayer.overwriteProbOf(a, Role.WEREWOLF, 0.0));
+		// only the inner player is updated concurrently with this player, and joined before the fake world is used
+		List<Agent> wolves = getWolf(gameInfo.getAgentList());
+		CompletableFuture<Void> fakeUpdate = runAsync(() -> {
+			innerPlayer.update(fakeGameInfo);
+			wolves.forEach(a -> innerPlayer.overwriteProbOf(a, Role.WEREWOLF, 0.0));
+		});
+		super.update(gameInfo);
 
 		processWhisper();
 
 		List<Agent> fakeJudges = getAlive(getFakeSeers());
 		fakeJudges.addAll(getAlive(getFakeMediums()));
 		fakeJudges.removeIf(a -> isWolf(a));
+		join(fakeUpdate);
 		if (!fakeJudges.isEmpty()) {
 			possessed = selectMax(Role.POSSESSED, fakeJudges);
 			innerPlayer.overwriteProbOf(possessed, Role.WEREWOLF, 0.0);
@@ -169,14 +170,10 @@ public class Werewolf extends BasePlayer {
 		for (int i = whisperListHead; i < getGameInfo().getWhisperList().size(); i++) {
 			Talk whisper = getGameInfo().getWhisperList().get(i);
 			Agent whisperer = whisper.getAgent();
-			if (whisperer == getMe()) {
+			if (whisperer == getMe() || isSkipOrOver(whisper)) {
 				continue;
 			}
-			Content content = new Content(whisper.getText());
-			if (content.getSubject() == Content.UNSPEC) {
-				content = replaceSubject(content, whisperer);
-			}
-			parseWhisper(content);
+			parseWhisper(getTalkStore().getWhisperContent(whisper));
 		}
 		whisperListHead = getGameInfo().getWhisperList().size();
 	}
@@ -230,7 +227,7 @@ public class Werewolf extends BasePlayer {
 	}
 
 	private Agent chooseAttackVoteCandidate() {
-		return getHuman(getAliveOthers()).stream().max(comparing(a -> attackEval(a))).orElse(null);
+		return selectMax(getAliveOthersMask() & getStates().getHumanMask(), a -> attackEval(a));
 	}
 
 	private double attackEval(Agent agent) {
@@ -307,9 +304,9 @@ public class Werewolf extends BasePlayer {
 	}
 
 	protected void chooseVoteCandidate0() {
-		voteCandidate = getAliveOthers().stream().max(comparing(a -> voteEval(a))).orElse(null);
+		voteCandidate = selectMax(getAliveOthersMask(), a -> voteEval(a));
 		getVoteReasonMap().put(getMe(), voteCandidate);
-		if (getVoteReasonMap().getVoteCount(voteCandidate) < getAliveOthers().size() * 0.5) {
+		if (getVoteReasonMap().getVoteCount(voteCandidate) < Long.bitCount(getAliveOthersMask()) * 0.5) {
 			voteCandidate = innerPlayer.vote();
 			if (isWolf(voteCandidate)) {
 				voteCandidate = selectMax(Role.WEREWOLF, getHuman(getAliveOthers()));
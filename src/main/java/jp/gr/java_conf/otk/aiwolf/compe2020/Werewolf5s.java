@@ -6,9 +6,6 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020;
 
-import java.util.Deque;
-import java.util.LinkedList;
-
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Judge;
 import org.aiwolf.common.data.Role;
@@ -16,7 +13,7 @@ import org.aiwolf.common.data.Species;
 import org.aiwolf.common.net.GameInfo;
 import org.aiwolf.common.net.GameSetting;
 
-import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoModifier;
+import jp.gr.java_conf.otk.aiwolf.compe2020.common.GameInfoLog;
 import jp.gr.java_conf.otk.aiwolf.compe2020.common.MetaInfo;
 
 /**
@@ -30,7 +27,7 @@ public class Werewolf5s extends Werewolf5 {
 	private MetaInfo fakeMetaInfo;
 	private Agent divinedHuman;
 	private Judge fakeDivination;
-	private Deque<GameInfo> gameInfoList = new LinkedList<>();
+	private GameInfoLog gameInfoLog = new GameInfoLog();
 
 	/**
 	 * Constructs Werewolf5s with meta information.
@@ -49,7 +46,7 @@ public class Werewolf5s extends Werewolf5 {
 		super.initialize(gameInfo, gameSetting);
 		divinedHuman = null;
 		fakeDivination = null;
-		gameInfoList.clear();
+		gameInfoLog.clear();
 
 		GameInfo fakeGameInfo = getFakeGameInfo(gameInfo, Role.SEER, null);
 		fakeMetaInfo.initialize(fakeGameInfo);
@@ -60,7 +57,7 @@ public class Werewolf5s extends Werewolf5 {
 	public void update(GameInfo gameInfo) {
 		super.update(gameInfo);
 		if (getDate() > 0) {
-			gameInfoList.offer(new GameInfoModifier(gameInfo).toGameInfo());
+			gameInfoLog.record(gameInfo);
 		} else {
 			GameInfo fakeGameInfo = getFakeGameInfo(gameInfo, Role.SEER, null);
 			fakeMetaInfo.update(fakeGameInfo);
@@ -81,21 +78,21 @@ public class Werewolf5s extends Werewolf5 {
 				divinedHuman = possessed;
 				enqueueTalk(divinedContent(getMe(), divinedHuman, Species.HUMAN));
 				fakeDivination = new Judge(getDate(), getMe(), divinedHuman, Species.HUMAN);
-				GameInfo fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				GameInfo fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.dayStart();
-				fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.talk();
-				fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.talk();
 				break;
 			default:
-				fakeGameInfo = getFakeGameInfo(gameInfoList.poll(), Role.SEER, fakeDivination);
+				fakeGameInfo = getFakeGameInfo(gameInfoLog.poll(), Role.SEER, fakeDivination);
 				fakeMetaInfo.update(fakeGameInfo);
 				innerSeer.update(fakeGameInfo);
 				innerSeer.talk();
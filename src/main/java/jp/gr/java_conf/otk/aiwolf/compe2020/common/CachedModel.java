@@ -0,0 +1,173 @@
+/**
+ * CachedModel.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * model with the cache of outputs
+ * 
+ * <p>
+ * The cache is shared by all the models in the process and survives across games, since the same inputs recur very often. An input is
+ * identified by the model and 128 bit hash of the exact input vector, so that the keys are small. The least recently used entry is
+ * evicted when the number of entries exceeds the capacity.
+ * </p>
+ * 
+ * @author otsuki
+ *
+ */
+public class CachedModel implements InferenceModel {
+
+	private static final class Key {
+		private final int modelId;
+		private final long hash1;
+		private final long hash2;
+
+		Key(int modelId, double[] input) {
+			this.modelId = modelId;
+			long h1 = 0x9E3779B97F4A7C15L;
+			long h2 = 0xC2B2AE3D27D4EB4FL;
+			// input vectors are sparse, so only the nonzero elements are hashed with their indices
+			for (int i = 0; i < input.length; i++) {
+				if (input[i] != 0) {
+					long bits = Double.doubleToLongBits(input[i]) + i;
+					h1 = Long.rotateLeft(h1 ^ bits, 31) * 0x9E3779B97F4A7C15L + i;
+					h2 = Long.rotateLeft(h2 + bits, 27) * 0xFF51AFD7ED558CCDL ^ i;
+				}
+			}
+			hash1 = h1 ^ (h1 >>> 33);
+			hash2 = h2 ^ (h2 >>> 29) ^ input.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (hash1 ^ (hash1 >>> 32)) * 31 + modelId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) obj;
+			return modelId == key.modelId && hash1 == key.hash1 && hash2 == key.hash2;
+		}
+	}
+
+	private static int capacity = 100000;
+	private static long hitCount;
+	private static long missCount;
+	private static int numModels;
+
+	private static final Map<Key, Double> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+		private static final long serialVersionUID = 2434474787069396237L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+			return size() > capacity;
+		}
+	};
+
+	/**
+	 * sets the maximum number of cached outputs, 0 for no cache
+	 * 
+	 * @param capacity
+	 */
+	public static void setCapacity(int capacity) {
+		synchronized (cache) {
+			CachedModel.capacity = capacity;
+			if (capacity == 0) {
+				cache.clear();
+			}
+		}
+	}
+
+	/**
+	 * returns the number of outputs served from the cache
+	 * 
+	 * @return the number of hits
+	 */
+	public static long getHitCount() {
+		synchronized (cache) {
+			return hitCount;
+		}
+	}
+
+	/**
+	 * returns the number of outputs computed by the models
+	 * 
+	 * @return the number of misses
+	 */
+	public static long getMissCount() {
+		synchronized (cache) {
+			return missCount;
+		}
+	}
+
+	/**
+	 * clears the cache and the counters
+	 */
+	public static void clear() {
+		synchronized (cache) {
+			cache.clear();
+			hitCount = 0;
+			missCount = 0;
+		}
+	}
+
+	private InferenceModel model;
+	private int id;
+
+	public CachedModel(InferenceModel model) {
+		this.model = model;
+		synchronized (cache) {
+			id = numModels++;
+		}
+	}
+
+	@Override
+	public double[] output(double[][] input) {
+		double[] result = new double[input.length];
+		Key[] keys = new Key[input.length];
+		int[] missIndex = new int[input.length];
+		int numMisses = 0;
+		synchronized (cache) {
+			for (int i = 0; i < input.length; i++) {
+				keys[i] = new Key(id, input[i]);
+				Double value = capacity > 0 ? cache.get(keys[i]) : null;
+				if (value != null) {
+					result[i] = value;
+				} else {
+					missIndex[numMisses++] = i;
+				}
+			}
+			hitCount += input.length - numMisses;
+			missCount += numMisses;
+		}
+		if (numMisses == 0) {
+			return result;
+		}
+
+		// only the missed rows are given to the model
+		double[][] missed = new double[numMisses][];
+		for (int k = 0; k < numMisses; k++) {
+			missed[k] = input[missIndex[k]];
+		}
+		double[] output = model.output(missed);
+		synchronized (cache) {
+			for (int k = 0; k < numMisses; k++) {
+				result[missIndex[k]] = output[k];
+				if (capacity > 0) {
+					cache.put(keys[missIndex[k]], output[k]);
+				}
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Dl4jModel.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * model evaluated by DL4J/ND4J
+ * 
+ * @author otsuki
+ *
+ */
+public class Dl4jModel implements InferenceModel {
+
+	private MultiLayerNetwork network;
+
+	public Dl4jModel(MultiLayerNetwork network) {
+		this.network = network;
+	}
+
+	@Override
+	public double[] output(double[][] input) {
+		INDArray output = network.output(Nd4j.create(input), false);
+		double[] result = new double[input.length];
+		for (int i = 0; i < input.length; i++) {
+			result[i] = output.getDouble(i, 0);
+		}
+		return result;
+	}
+
+}
@@ -6,14 +6,11 @@
  */
 package jp.gr.java_conf.otk.aiwolf.compe2020.common;
 
-import static java.util.Comparator.*;
-
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import org.aiwolf.client.lib.Content;
 import org.aiwolf.client.lib.Operator;
 import org.aiwolf.client.lib.Topic;
 import org.aiwolf.common.data.Agent;
@@ -23,7 +20,6 @@ import org.aiwolf.common.data.Status;
 import org.aiwolf.common.data.Talk;
 import org.aiwolf.common.data.Vote;
 import org.aiwolf.common.net.GameInfo;
-import org.nd4j.common.util.ArrayUtil;
 
 public class Feature {
 
@@ -99,13 +95,33 @@ public class Feature {
 			Topic.IDENTIFIED, Feature.UT_IDENTIFIED,
 			Topic.OPERATOR, Feature.UT_OPERATOR);
 
-	private Map<Agent, AgentFeature> featureMap = new HashMap<>();
+	// features of the agents, the features of the agent with index i are at [(i - 1) * NUM_AGENT_FEATURE]
+	private double[] features;
+	private int numAgents;
+
+	private TalkStore talkStore;
+
+	// features of the real world shared by the fake world, null if this is of the real world
+	private Feature base;
+	// versions of the utterance patterns of the base at the last update
+	private long[] baseStatVersions;
 
 	private Agent me;
 	private Role myRole;
 	private int date = -1;
 	private int talkListHead;
-	private boolean isModified;
+	// incremented whenever any input vector is modified
+	private long version;
+	// version of the input vector of each agent
+	private Map<Agent, long[]> versionMap = new HashMap<>();
+	// incremented whenever any agent feature is changed
+	private long featureVersion;
+	// incremented whenever a feature of each agent is changed
+	private long[] agentFeatureVersions;
+	// version of the utterance pattern of each agent
+	private long[] statVersions;
+	// judges counted on each update, [white judged, black judged, white judgement, black judgement]
+	private Map<Agent, int[]> judgeCountMap = new HashMap<>();
 
 	// divine result
 	private Map<Agent, Map<Agent, Species>> divinationMap = new HashMap<>();
@@ -122,11 +138,15 @@ public class Feature {
 	// utterance statistics
 	private Map<Agent, UtteranceStatistics> statMap = new HashMap<>();
 
-	public Feature(GameInfo gameInfo) {
+	public Feature(GameInfo gameInfo, TalkStore talkStore) {
+		this.talkStore = talkStore;
 		me = gameInfo.getAgent();
 		myRole = gameInfo.getRole();
+		numAgents = gameInfo.getAgentList().size();
+		features = new double[numAgents * NUM_AGENT_FEATURE];
+		agentFeatureVersions = new long[numAgents];
+		statVersions = new long[numAgents];
 		for (Agent a : gameInfo.getAgentList()) {
-			featureMap.put(a, new AgentFeature(NUM_AGENT_FEATURE));
 			divinationMap.put(a, new HashMap<Agent, Species>());
 			identMap.put(a, new HashMap<Agent, Species>());
 			estimateMap.put(a, new HashMap<Agent, Role>());
@@ -141,8 +161,27 @@ public class Feature {
 				speciesMap.put(a, hisRole.getSpecies());
 			}
 			statMap.put(a, new UtteranceStatistics());
+			versionMap.put(a, new long[] { version });
+			judgeCountMap.put(a, new int[4]);
 		}
-		isModified = true;
+	}
+
+	/**
+	 * constructs the features of the fake world, which share the parsed talks and the features of the real world
+	 * 
+	 * <p>
+	 * Only the features depending on my role and my judges, IS_ALLY, IS_ENEMY, IS_HUMAN and IS_WEREWOLF, are computed by the fake world,
+	 * and the others are copied from the real world. So the real world must have been updated with the same talks before each update of
+	 * the fake world.
+	 * </p>
+	 * 
+	 * @param gameInfo the GameInfo of the fake world
+	 * @param base     the features of the real world
+	 */
+	public Feature(GameInfo gameInfo, Feature base) {
+		this(gameInfo, base.talkStore);
+		this.base = base;
+		baseStatVersions = new long[numAgents];
 	}
 
 	/**
@@ -156,19 +195,22 @@ public class Feature {
 		if (gameInfo.getDay() < date || gameInfo.getStatusMap().get(me) == Status.DEAD) {
 			return false;
 		}
+		if (base != null) {
+			return updateFromBase(gameInfo);
+		}
 
-		Map<Agent, AgentFeature> oldFeatureMap = new HashMap<>();
-		featureMap.keySet().stream().forEach(a -> oldFeatureMap.put(a, featureMap.get(a).clone()));
+		long oldFeatureVersion = featureVersion;
 
-		if (gameInfo.getDay() > date) {
+		boolean isNewDay = gameInfo.getDay() > date;
+		if (isNewDay) {
 			date = gameInfo.getDay();
 			for (Agent a : gameInfo.getAgentList()) {
-				featureMap.get(a).set(IS_DEAD, gameInfo.getStatusMap().get(a) == Status.ALIVE ? 0 : 1);
+				set(a, IS_DEAD, gameInfo.getStatusMap().get(a) == Status.ALIVE ? 0 : 1);
 			}
 			for (Vote vote : gameInfo.getVoteList()) {
 				Agent voter = vote.getAgent();
 				if (votingMap.containsKey(voter) && vote.getDay() == votingMap.get(voter).getDay() && vote.getTarget() != votingMap.get(voter).getTarget()) {
-					featureMap.get(voter).inc(NUM_CHANGE_VOTE);
+					inc(voter, NUM_CHANGE_VOTE);
 				}
 			}
 			if (gameInfo.getDivineResult() != null) {
@@ -178,10 +220,10 @@ public class Feature {
 				speciesMap.put(gameInfo.getMediumResult().getTarget(), gameInfo.getMediumResult().getResult());
 			}
 			if (gameInfo.getExecutedAgent() != null) {
-				featureMap.get(gameInfo.getExecutedAgent()).set(IS_EXECUTED, 1);
+				set(gameInfo.getExecutedAgent(), IS_EXECUTED, 1);
 			}
 			gameInfo.getLastDeadAgentList().stream().forEach(a -> {
-				featureMap.get(a).set(IS_KILLED, 1);
+				set(a, IS_KILLED, 1);
 				speciesMap.put(a, Species.HUMAN);
 			});
 			talkListHead = 0;
@@ -190,123 +232,238 @@ public class Feature {
 
 		for (int i = talkListHead; i < gameInfo.getTalkList().size(); i++) {
 			Talk talk = gameInfo.getTalkList().get(i);
-			Content content = new Content(talk);
-			if (!parseSentence(content) && isDebug) {
-				System.err.println(content);
+			if (!parseSentence(talk, talkStore.getContent(talk)) && isDebug) {
+				System.err.println(talk);
 			}
 		}
 		talkListHead = gameInfo.getTalkList().size();
 
-		for (Agent a : gameInfo.getAgentList()) {
-			featureMap.get(a).set(NUM_JUDGED_AS_WHITE, 0);
-			featureMap.get(a).set(NUM_JUDGED_AS_BLACK, 0);
-			featureMap.get(a).set(NUM_WHITE_JUDGEMENT, 0);
-			featureMap.get(a).set(NUM_BLACK_JUDGEMENT, 0);
-		}
+		// the judges are counted from scratch, and only the changed counts are set
+		judgeCountMap.values().forEach(c -> Arrays.fill(c, 0));
 		for (Agent agent : divinationMap.keySet()) {
 			for (Agent target : divinationMap.get(agent).keySet()) {
 				Species result = divinationMap.get(agent).get(target);
 				if (result == Species.HUMAN) {
-					featureMap.get(target).inc(NUM_JUDGED_AS_WHITE);
-					featureMap.get(agent).inc(NUM_WHITE_JUDGEMENT);
+					judgeCountMap.get(target)[0]++;
+					judgeCountMap.get(agent)[2]++;
+				} else if (result == Species.WEREWOLF) {
+					judgeCountMap.get(target)[1]++;
+					judgeCountMap.get(agent)[3]++;
+				}
+			}
+		}
+		for (Agent a : gameInfo.getAgentList()) {
+			int[] count = judgeCountMap.get(a);
+			set(a, NUM_JUDGED_AS_WHITE, count[0]);
+			set(a, NUM_JUDGED_AS_BLACK, count[1]);
+			set(a, NUM_WHITE_JUDGEMENT, count[2]);
+			set(a, NUM_BLACK_JUDGEMENT, count[3]);
+		}
+		updateJudgeFlags(divinationMap, identMap);
+
+		// the input vector of an agent contains the date and the features of all agents
+		if (isNewDay || featureVersion != oldFeatureVersion) {
+			version++;
+			versionMap.values().forEach(v -> v[0] = version);
+		}
+		return true;
+	}
+
+	// updates the features of the fake world from those of the real world updated with the same talks
+	private boolean updateFromBase(GameInfo gameInfo) {
+		if (gameInfo.getDay() != base.date || gameInfo.getTalkList().size() != base.talkListHead) {
+			return false;
+		}
+
+		long oldFeatureVersion = featureVersion;
+
+		boolean isNewDay = gameInfo.getDay() > date;
+		if (isNewDay) {
+			date = gameInfo.getDay();
+			if (gameInfo.getDivineResult() != null) {
+				speciesMap.put(gameInfo.getDivineResult().getTarget(), gameInfo.getDivineResult().getResult());
+			}
+			if (gameInfo.getMediumResult() != null) {
+				speciesMap.put(gameInfo.getMediumResult().getTarget(), gameInfo.getMediumResult().getResult());
+			}
+			gameInfo.getLastDeadAgentList().stream().forEach(a -> speciesMap.put(a, Species.HUMAN));
+		}
+
+		for (Agent a : gameInfo.getAgentList()) {
+			for (int index = 0; index < NUM_AGENT_FEATURE; index++) {
+				if (index != IS_ENEMY && index != IS_ALLY && index != IS_HUMAN && index != IS_WEREWOLF) {
+					set(a, index, base.get(a, index));
+				}
+			}
+			// CO of my role, which is set on parsing in the real world
+			if (a != me && ((myRole == Role.SEER && get(a, CO_SEER) == 1) || (myRole == Role.MEDIUM && get(a, CO_MEDIUM) == 1))) {
+				set(a, IS_ENEMY, 1);
+			}
+		}
+		updateJudgeFlags(base.divinationMap, base.identMap);
+
+		if (isNewDay || featureVersion != oldFeatureVersion) {
+			version++;
+			versionMap.values().forEach(v -> v[0] = version);
+		} else {
+			// the utterance patterns are those of the real world
+			for (Agent a : gameInfo.getAgentList()) {
+				if (base.statVersions[a.getAgentIdx() - 1] != baseStatVersions[a.getAgentIdx() - 1]) {
+					versionMap.get(a)[0] = ++version;
+				}
+			}
+		}
+		System.arraycopy(base.statVersions, 0, baseStatVersions, 0, numAgents);
+		return true;
+	}
+
+	// sets the flags depending on my role and my judges, which are never cleared
+	private void updateJudgeFlags(Map<Agent, Map<Agent, Species>> divinations, Map<Agent, Map<Agent, Species>> idents) {
+		for (Agent agent : divinations.keySet()) {
+			for (Agent target : divinations.get(agent).keySet()) {
+				Species result = divinations.get(agent).get(target);
+				if (result == Species.HUMAN) {
 					if (target == me) {
-						featureMap.get(agent).set(IS_ALLY, 1);
+						set(agent, IS_ALLY, 1);
 					}
 					if (speciesMap.get(target) == Species.WEREWOLF) {
-						featureMap.get(agent).set(IS_ENEMY, 1);
+						set(agent, IS_ENEMY, 1);
 					}
 				} else if (result == Species.WEREWOLF) {
-					featureMap.get(target).inc(NUM_JUDGED_AS_BLACK);
-					featureMap.get(agent).inc(NUM_BLACK_JUDGEMENT);
 					if (target == me) {
-						featureMap.get(agent).set(IS_ENEMY, 1);
+						set(agent, IS_ENEMY, 1);
 					}
 					if (speciesMap.get(target) == Species.HUMAN) {
-						featureMap.get(agent).set(IS_ENEMY, 1);
+						set(agent, IS_ENEMY, 1);
 					}
 				}
 			}
 		}
-		for (Agent a : identMap.keySet()) {
-			for (Agent target : identMap.get(a).keySet()) {
-				Species result = identMap.get(a).get(target);
+		for (Agent a : idents.keySet()) {
+			for (Agent target : idents.get(a).keySet()) {
+				Species result = idents.get(a).get(target);
 				if ((result == Species.WEREWOLF && speciesMap.get(target) == Species.HUMAN) || (result == Species.HUMAN && speciesMap.get(target) == Species.WEREWOLF)) {
-					featureMap.get(a).set(IS_ENEMY, 1);
+					set(a, IS_ENEMY, 1);
 				}
 			}
 		}
 		for (Agent a : speciesMap.keySet()) {
 			if (speciesMap.get(a) == Species.HUMAN) {
-				featureMap.get(a).set(IS_HUMAN, 1);
+				set(a, IS_HUMAN, 1);
 			} else if (speciesMap.get(a) == Species.WEREWOLF) {
-				featureMap.get(a).set(IS_WEREWOLF, 1);
+				set(a, IS_WEREWOLF, 1);
 			}
 		}
+	}
 
-		isModified = isModified || featureMap.entrySet().stream().anyMatch(e -> !e.getValue().equals(oldFeatureMap.get(e.getKey())));
-		return true;
+	private void set(Agent agent, int index, double value) {
+		int i = agent.getAgentIdx() - 1;
+		if (features[i * NUM_AGENT_FEATURE + index] != value) {
+			features[i * NUM_AGENT_FEATURE + index] = value;
+			agentFeatureVersions[i]++;
+			featureVersion++;
+		}
+	}
+
+	private void inc(Agent agent, int index) {
+		int i = agent.getAgentIdx() - 1;
+		features[i * NUM_AGENT_FEATURE + index]++;
+		agentFeatureVersions[i]++;
+		featureVersion++;
+	}
+
+	/**
+	 * returns the feature of the agent
+	 * 
+	 * @param agent
+	 * @param index index of the feature
+	 * @return the value
+	 */
+	public double get(Agent agent, int index) {
+		return features[(agent.getAgentIdx() - 1) * NUM_AGENT_FEATURE + index];
+	}
+
+	/**
+	 * returns the version of the features of the agent, which is incremented whenever a feature of the agent is changed
+	 * 
+	 * @param agent
+	 * @return the version
+	 */
+	public long getFeatureVersionOf(Agent agent) {
+		return agentFeatureVersions[agent.getAgentIdx() - 1];
 	}
 
-	private void updateStatMap(Content content) {
-		if (content.getTalkDate() != 1) {
+	private void updateStatMap(Talk talk, Content content) {
+		if (talk.getDay() != 1) {
 			return;
 		}
-		isModified = statMap.get(content.getTalker()).set(content.getTurn(), content.getTopic(), 1);
+		// the utterance pattern is contained only in the input vector of the talker
+		if (statMap.get(talk.getAgent()).set(talk.getTurn(), content.getTopic(), 1)) {
+			versionMap.get(talk.getAgent())[0] = ++version;
+			statVersions[talk.getAgent().getAgentIdx() - 1]++;
+		}
 	}
 
-	private boolean parseSentence(Content content) {
+	/**
+	 * parses the sentence in the talk, whose subject is regarded as the talker
+	 * 
+	 * <p>
+	 * The nested sentences are walked through the content list of the parsed content, with the talk as the context.
+	 * </p>
+	 * 
+	 * @param talk    the talk containing the sentence
+	 * @param content the sentence
+	 * @return false if failed to parse
+	 */
+	private boolean parseSentence(Talk talk, Content content) {
 		if (content.getTopic() == Topic.SKIP || content.getTopic() == Topic.OVER) {
-			updateStatMap(content);
+			updateStatMap(talk, content);
 			return true;
 		}
-		return addCo(content) || addDivined(content) || addIdentified(content) || addVote(content) || addEstimate(content)
-				|| parseOperator(content);
+		return addCo(talk, content) || addDivined(talk, content) || addIdentified(talk, content) || addVote(talk, content) || addEstimate(talk, content)
+				|| parseOperator(talk, content);
 	}
 
-	private boolean parseOperator(Content content) {
+	private boolean parseOperator(Talk talk, Content content) {
 		if (content.getTopic() == Topic.OPERATOR) {
-			updateStatMap(content);
-			return parseBecause(content) || parseDay(content) || parseAnd(content) || parseOr(content) || parseXor(content) || parseRequset(content) || parseInquire(content);
+			updateStatMap(talk, content);
+			return parseBecause(talk, content) || parseDay(talk, content) || parseAnd(talk, content) || parseOr(talk, content) || parseXor(talk, content)
+					|| parseRequset(content) || parseInquire(content);
 		}
 		return false;
 	}
 
-	private boolean parseBecause(Content content) {
+	private boolean parseBecause(Talk talk, Content content) {
 		if (content.getOperator() == Operator.BECAUSE) {
-			Talk subTalk = new Talk(content.getIndex(), content.getTalkDate(), content.getTurn(), content.getTalker(), content.getContentList().get(1).getText());
-			return parseSentence(new Content(subTalk));
+			return parseSentence(talk, content.getContentList().get(1));
 		}
 		return false;
 	}
 
-	private boolean parseDay(Content content) {
+	private boolean parseDay(Talk talk, Content content) {
 		if (content.getOperator() == Operator.DAY) {
-			Talk subTalk = new Talk(content.getIndex(), content.getTalkDate(), content.getTurn(), content.getTalker(), content.getContentList().get(0).getText());
-			return parseSentence(new Content(subTalk));
+			return parseSentence(talk, content.getContentList().get(0));
 		}
 		return false;
 	}
 
-	private boolean parseAnd(Content content) {
+	private boolean parseAnd(Talk talk, Content content) {
 		if (content.getOperator() == Operator.AND) {
-			return content.getContentList().stream()
-					.allMatch(c -> parseSentence(new Content(new Talk(content.getIndex(), content.getTalkDate(), content.getTurn(), content.getTalker(), c.getText()))));
+			return content.getContentList().stream().allMatch(c -> parseSentence(talk, c));
 		}
 		return false;
 	}
 
-	private boolean parseOr(Content content) {
+	private boolean parseOr(Talk talk, Content content) {
 		if (content.getOperator() == Operator.OR) {
-			return content.getContentList().stream().allMatch(c -> c.getTopic() == Topic.VOTE
-					&& parseSentence(new Content(new Talk(content.getIndex(), content.getTalkDate(), content.getTurn(), content.getTalker(), c.getText()))));
+			return content.getContentList().stream().allMatch(c -> c.getTopic() == Topic.VOTE && parseSentence(talk, c));
 		}
 		return false;
 	}
 
-	private boolean parseXor(Content content) {
+	private boolean parseXor(Talk talk, Content content) {
 		if (content.getOperator() == Operator.XOR) {
-			return content.getContentList().stream().allMatch(c -> (c.getTopic() == Topic.VOTE || c.getTopic() == Topic.ESTIMATE)
-					&& parseSentence(new Content(new Talk(content.getIndex(), content.getTalkDate(), content.getTurn(), content.getTalker(), c.getText()))));
+			return content.getContentList().stream().allMatch(c -> (c.getTopic() == Topic.VOTE || c.getTopic() == Topic.ESTIMATE) && parseSentence(talk, c));
 		}
 		return false;
 	}
@@ -325,36 +482,96 @@ public class Feature {
 		return false;
 	}
 
+	/**
+	 * returns the length of the feature array
+	 * 
+	 * @return the length
+	 */
+	public int getFeatureArrayLength() {
+		return 1 + NUM_ROLES + numAgents * NUM_AGENT_FEATURE;
+	}
+
 	public double[] getFeatureArrayOf(Agent agent) {
-		List<double[]> dList = new ArrayList<>();
-		dList.add(new double[] { date });
-		dList.add(roleVectorMap.get(myRole));
-		dList.add(featureMap.get(me).getArray());
-		dList.add(featureMap.get(agent).getArray());
-		List<AgentFeature> agentFeatureList = new ArrayList<>();
-		for (Agent a : featureMap.keySet()) {
-			if (a != me && a != agent) {
-				agentFeatureList.add(featureMap.get(a));
+		double[] array = new double[getFeatureArrayLength()];
+		writeFeatureArrayOf(agent, array, 0);
+		return array;
+	}
+
+	/**
+	 * writes the feature array of the agent into the buffer
+	 * 
+	 * <p>
+	 * The array consists of the date, my role, my features, the features of the agent and those of the others in the order of index.
+	 * </p>
+	 * 
+	 * @param agent
+	 * @param buffer
+	 * @param offset the position where the array is written
+	 * @return the position next to the array
+	 */
+	public int writeFeatureArrayOf(Agent agent, double[] buffer, int offset) {
+		int pos = offset;
+		buffer[pos++] = date;
+		System.arraycopy(roleVectorMap.get(myRole), 0, buffer, pos, NUM_ROLES);
+		pos += NUM_ROLES;
+		int iMe = me.getAgentIdx() - 1;
+		int iAgent = agent.getAgentIdx() - 1;
+		System.arraycopy(features, iMe * NUM_AGENT_FEATURE, buffer, pos, NUM_AGENT_FEATURE);
+		pos += NUM_AGENT_FEATURE;
+		System.arraycopy(features, iAgent * NUM_AGENT_FEATURE, buffer, pos, NUM_AGENT_FEATURE);
+		pos += NUM_AGENT_FEATURE;
+		for (int i = 0; i < numAgents; i++) {
+			if (i != iMe && i != iAgent) {
+				System.arraycopy(features, i * NUM_AGENT_FEATURE, buffer, pos, NUM_AGENT_FEATURE);
+				pos += NUM_AGENT_FEATURE;
 			}
 		}
-		for (AgentFeature f : agentFeatureList.stream().sorted(comparing(AgentFeature::getSum).thenComparing(AgentFeature::getBin)).collect(Collectors.toList())) {
-			dList.add(f.getArray());
-		}
-		return ArrayUtil.combineDouble(dList);
+		return pos;
 	}
 
 	public double[] getUtterancePatternOf(Agent agent) {
+		if (base != null) {
+			return base.getUtterancePatternOf(agent);
+		}
 		return statMap.get(agent).getAbsoluteVerctor();
 	}
 
-	public boolean isModified() {
-		return isModified;
+	/**
+	 * returns the utterance pattern of the agent in matrix form, which must not be modified
+	 * 
+	 * @param agent
+	 * @return the matrix of turns x topics
+	 */
+	public double[][] getUtteranceMatrixOf(Agent agent) {
+		if (base != null) {
+			return base.getUtteranceMatrixOf(agent);
+		}
+		return statMap.get(agent).getAbsoluteMatrix();
+	}
+
+	/**
+	 * returns the version, which is incremented whenever any input vector is modified
+	 * 
+	 * @return the version
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * returns the version of the input vector of the agent, which is the version when it was modified last
+	 * 
+	 * @param agent
+	 * @return the version
+	 */
+	public long getVersionOf(Agent agent) {
+		return versionMap.get(agent)[0];
 	}
 
-	private boolean addCo(Content content) {
-		if (content.getTopic() == Topic.COMINGOUT && content.getSubject() == content.getTarget()) {
-			updateStatMap(content);
-			addCo(content.getSubject(), content.getRole());
+	private boolean addCo(Talk talk, Content content) {
+		if (content.getTopic() == Topic.COMINGOUT && talk.getAgent() == content.getTarget()) {
+			updateStatMap(talk, content);
+			addCo(talk.getAgent(), content.getRole());
 			return true;
 		}
 		return false;
@@ -364,38 +581,38 @@ public class Feature {
 		comingoutMap.put(talker, coRole);
 		switch (coRole) {
 		case WEREWOLF:
-			featureMap.get(talker).set(CO_WEREWOLF, 1);
+			set(talker, CO_WEREWOLF, 1);
 			break;
 		case VILLAGER:
-			featureMap.get(talker).set(CO_VILLAGER, 1);
+			set(talker, CO_VILLAGER, 1);
 			break;
 		case SEER:
-			featureMap.get(talker).set(CO_SEER, 1);
+			set(talker, CO_SEER, 1);
 			if (myRole == Role.SEER && talker != me) {
-				featureMap.get(talker).set(IS_ENEMY, 1);
+				set(talker, IS_ENEMY, 1);
 			}
 			break;
 		case POSSESSED:
-			featureMap.get(talker).set(CO_POSSESSED, 1);
+			set(talker, CO_POSSESSED, 1);
 			break;
 		case MEDIUM:
-			featureMap.get(talker).set(CO_MEDIUM, 1);
+			set(talker, CO_MEDIUM, 1);
 			if (myRole == Role.MEDIUM && talker != me) {
-				featureMap.get(talker).set(IS_ENEMY, 1);
+				set(talker, IS_ENEMY, 1);
 			}
 			break;
 		case BODYGUARD:
-			featureMap.get(talker).set(CO_BODYGUARD, 1);
+			set(talker, CO_BODYGUARD, 1);
 			break;
 		default:
 			break;
 		}
 	}
 
-	private boolean addDivined(Content content) {
+	private boolean addDivined(Talk talk, Content content) {
 		if (content.getTopic() == Topic.DIVINED) {
-			updateStatMap(content);
-			addDivined(content.getSubject(), content.getTarget(), content.getResult());
+			updateStatMap(talk, content);
+			addDivined(talk.getAgent(), content.getTarget(), content.getResult());
 			return true;
 		}
 		return false;
@@ -406,10 +623,10 @@ public class Feature {
 		divinationMap.get(talker).put(target, result);
 	}
 
-	private boolean addIdentified(Content content) {
+	private boolean addIdentified(Talk talk, Content content) {
 		if (content.getTopic() == Topic.IDENTIFIED) {
-			updateStatMap(content);
-			addIdentified(content.getSubject(), content.getTarget(), content.getResult());
+			updateStatMap(talk, content);
+			addIdentified(talk.getAgent(), content.getTarget(), content.getResult());
 			return true;
 		}
 		return false;
@@ -420,19 +637,19 @@ public class Feature {
 		identMap.get(talker).put(target, result);
 	}
 
-	private boolean addVote(Content content) {
+	private boolean addVote(Talk talk, Content content) {
 		if (content.getTopic() == Topic.VOTE) {
-			updateStatMap(content);
-			votingMap.put(content.getSubject(), new Vote(date, content.getSubject(), content.getTarget()));
+			updateStatMap(talk, content);
+			votingMap.put(talk.getAgent(), new Vote(date, talk.getAgent(), content.getTarget()));
 			return true;
 		}
 		return false;
 	}
 
-	private boolean addEstimate(Content content) {
+	private boolean addEstimate(Talk talk, Content content) {
 		if (content.getTopic() == Topic.ESTIMATE) {
-			updateStatMap(content);
-			estimateMap.get(content.getSubject()).put(content.getTarget(), content.getRole());
+			updateStatMap(talk, content);
+			estimateMap.get(talk.getAgent()).put(content.getTarget(), content.getRole());
 			return true;
 		}
 		return false;
@@ -0,0 +1,207 @@
+/**
+ * GameInfoLog.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aiwolf.common.data.Agent;
+import org.aiwolf.common.data.Judge;
+import org.aiwolf.common.data.Status;
+import org.aiwolf.common.data.Talk;
+import org.aiwolf.common.net.GameInfo;
+
+/**
+ * log of compact snapshots of GameInfo to be replayed later
+ * 
+ * <p>
+ * Each snapshot records only the day, the lengths of the talk and the whisper lists, the status of agents and the judges at the time of
+ * the update, and refers to the GameInfo of the update, which is shared by the following updates while its talk list grows. The
+ * GameInfo at the time is reconstructed on demand as a view truncating the talk and the whisper lists, so that the memory per snapshot
+ * does not depend on the length of the talk history.
+ * </p>
+ * 
+ * @author otsuki
+ *
+ */
+public class GameInfoLog {
+
+	private Deque<Snapshot> snapshots = new ArrayDeque<>();
+
+	/**
+	 * records the snapshot of the GameInfo
+	 * 
+	 * @param gameInfo the GameInfo
+	 */
+	public void record(GameInfo gameInfo) {
+		snapshots.offer(new Snapshot(gameInfo));
+	}
+
+	/**
+	 * retrieves and removes the oldest snapshot
+	 * 
+	 * @return the GameInfo at the time of the oldest snapshot, null if the log is empty
+	 */
+	public GameInfo poll() {
+		return snapshots.poll();
+	}
+
+	/**
+	 * returns the number of snapshots
+	 * 
+	 * @return the number of snapshots
+	 */
+	public int size() {
+		return snapshots.size();
+	}
+
+	/**
+	 * returns whether or not the log is empty
+	 * 
+	 * @return true if the log is empty
+	 */
+	public boolean isEmpty() {
+		return snapshots.isEmpty();
+	}
+
+	/**
+	 * removes all the snapshots
+	 */
+	public void clear() {
+		snapshots.clear();
+	}
+
+	private static class Snapshot extends GameInfoOverlay {
+
+		private final int day;
+		private final int talkSize;
+		private final int whisperSize;
+		private final Status[] statuses;
+		private final Agent executedAgent;
+		private final Agent latestExecutedAgent;
+		private final Agent attackedAgent;
+		private final Agent guardedAgent;
+		private final Agent cursedFox;
+		private final Judge divineResult;
+		private final Judge mediumResult;
+		private final List<Agent> lastDeadAgentList;
+
+		private Map<Agent, Status> statusMap;
+
+		Snapshot(GameInfo gameInfo) {
+			super(gameInfo);
+			day = gameInfo.getDay();
+			talkSize = gameInfo.getTalkList().size();
+			whisperSize = gameInfo.getWhisperList().size();
+			List<Agent> agentList = gameInfo.getAgentList();
+			Map<Agent, Status> map = gameInfo.getStatusMap();
+			statuses = new Status[agentList.size()];
+			for (int i = 0; i < statuses.length; i++) {
+				statuses[i] = map.get(agentList.get(i));
+			}
+			executedAgent = gameInfo.getExecutedAgent();
+			latestExecutedAgent = gameInfo.getLatestExecutedAgent();
+			attackedAgent = gameInfo.getAttackedAgent();
+			guardedAgent = gameInfo.getGuardedAgent();
+			cursedFox = gameInfo.getCursedFox();
+			divineResult = gameInfo.getDivineResult();
+			mediumResult = gameInfo.getMediumResult();
+			lastDeadAgentList = gameInfo.getLastDeadAgentList().isEmpty() ? Collections.emptyList()
+					: new ArrayList<>(gameInfo.getLastDeadAgentList());
+		}
+
+		@Override
+		public int getDay() {
+			return day;
+		}
+
+		@Override
+		public Judge getMediumResult() {
+			return mediumResult;
+		}
+
+		@Override
+		public Judge getDivineResult() {
+			return divineResult;
+		}
+
+		@Override
+		public Agent getExecutedAgent() {
+			return executedAgent;
+		}
+
+		@Override
+		public Agent getLatestExecutedAgent() {
+			return latestExecutedAgent;
+		}
+
+		@Override
+		public Agent getCursedFox() {
+			return cursedFox;
+		}
+
+		@Override
+		public Agent getAttackedAgent() {
+			return attackedAgent;
+		}
+
+		@Override
+		public Agent getGuardedAgent() {
+			return guardedAgent;
+		}
+
+		@Override
+		public List<Talk> getTalkList() {
+			List<Talk> talkList = getGameInfo().getTalkList();
+			return talkList.subList(0, Math.min(talkSize, talkList.size()));
+		}
+
+		@Override
+		public List<Talk> getWhisperList() {
+			List<Talk> whisperList = getGameInfo().getWhisperList();
+			return whisperList.subList(0, Math.min(whisperSize, whisperList.size()));
+		}
+
+		@Override
+		public List<Agent> getAliveAgentList() {
+			List<Agent> agentList = getAgentList();
+			List<Agent> aliveAgentList = new ArrayList<>();
+			for (int i = 0; i < statuses.length; i++) {
+				if (statuses[i] == Status.ALIVE) {
+					aliveAgentList.add(agentList.get(i));
+				}
+			}
+			return aliveAgentList;
+		}
+
+		@Override
+		public Map<Agent, Status> getStatusMap() {
+			if (statusMap == null) {
+				List<Agent> agentList = getAgentList();
+				statusMap = new LinkedHashMap<>();
+				for (int i = 0; i < statuses.length; i++) {
+					if (statuses[i] != null) {
+						statusMap.put(agentList.get(i), statuses[i]);
+					}
+				}
+			}
+			return statusMap;
+		}
+
+		@Override
+		public List<Agent> getLastDeadAgentList() {
+			return lastDeadAgentList;
+		}
+
+	}
+
+}
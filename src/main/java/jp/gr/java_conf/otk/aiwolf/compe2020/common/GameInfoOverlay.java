@@ -0,0 +1,195 @@
+/**
+ * GameInfoOverlay.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.aiwolf.common.data.Agent;
+import org.aiwolf.common.data.Judge;
+import org.aiwolf.common.data.Role;
+import org.aiwolf.common.data.Status;
+import org.aiwolf.common.data.Talk;
+import org.aiwolf.common.data.Vote;
+import org.aiwolf.common.net.GameInfo;
+
+/**
+ * view of GameInfo with the fake role and judges
+ * 
+ * <p>
+ * Nothing is copied. All the information but the role, the divination result and the medium result is that of
+ * the underlying GameInfo, whose lists and maps are shared and must not be modified.
+ * </p>
+ * 
+ * @author otsuki
+ *
+ */
+public class GameInfoOverlay extends GameInfo {
+
+	private final GameInfo gameInfo;
+	private Role fakeRole;
+	private Map<Agent, Role> fakeRoleMap;
+	private Judge divineResult;
+	private Judge mediumResult;
+
+	public GameInfoOverlay(GameInfo gameInfo) {
+		this.gameInfo = gameInfo;
+	}
+
+	/**
+	 * returns the underlying GameInfo
+	 * 
+	 * @return the underlying GameInfo
+	 */
+	public GameInfo getGameInfo() {
+		return gameInfo;
+	}
+
+	public GameInfoOverlay setFakeRole(Role role) {
+		if (role != null) {
+			fakeRole = role;
+			fakeRoleMap = Collections.singletonMap(gameInfo.getAgent(), role);
+		}
+		return this;
+	}
+
+	public GameInfoOverlay setDivineResult(Judge judge) {
+		if (judge != null) {
+			divineResult = judge;
+		}
+		return this;
+	}
+
+	public GameInfoOverlay setMediumResult(Judge judge) {
+		if (judge != null) {
+			mediumResult = judge;
+		}
+		return this;
+	}
+
+	@Override
+	public int getDay() {
+		return gameInfo.getDay();
+	}
+
+	@Override
+	public Role getRole() {
+		return fakeRole != null ? fakeRole : gameInfo.getRole();
+	}
+
+	@Override
+	public Agent getAgent() {
+		return gameInfo.getAgent();
+	}
+
+	@Override
+	public List<Agent> getAgentList() {
+		return gameInfo.getAgentList();
+	}
+
+	@Override
+	public Judge getMediumResult() {
+		return mediumResult != null ? mediumResult : gameInfo.getMediumResult();
+	}
+
+	@Override
+	public Judge getDivineResult() {
+		return divineResult != null ? divineResult : gameInfo.getDivineResult();
+	}
+
+	@Override
+	public Agent getExecutedAgent() {
+		return gameInfo.getExecutedAgent();
+	}
+
+	@Override
+	public Agent getLatestExecutedAgent() {
+		return gameInfo.getLatestExecutedAgent();
+	}
+
+	@Override
+	public Agent getCursedFox() {
+		return gameInfo.getCursedFox();
+	}
+
+	@Override
+	public Agent getAttackedAgent() {
+		return gameInfo.getAttackedAgent();
+	}
+
+	@Override
+	public Agent getGuardedAgent() {
+		return gameInfo.getGuardedAgent();
+	}
+
+	@Override
+	public List<Vote> getVoteList() {
+		return gameInfo.getVoteList();
+	}
+
+	@Override
+	public List<Vote> getLatestVoteList() {
+		return gameInfo.getLatestVoteList();
+	}
+
+	@Override
+	public List<Vote> getAttackVoteList() {
+		return gameInfo.getAttackVoteList();
+	}
+
+	@Override
+	public List<Vote> getLatestAttackVoteList() {
+		return gameInfo.getLatestAttackVoteList();
+	}
+
+	@Override
+	public List<Talk> getTalkList() {
+		return gameInfo.getTalkList();
+	}
+
+	@Override
+	public List<Talk> getWhisperList() {
+		return gameInfo.getWhisperList();
+	}
+
+	@Override
+	public List<Agent> getAliveAgentList() {
+		return gameInfo.getAliveAgentList();
+	}
+
+	@Override
+	public Map<Agent, Status> getStatusMap() {
+		return gameInfo.getStatusMap();
+	}
+
+	@Override
+	public Map<Agent, Role> getRoleMap() {
+		return fakeRoleMap != null ? fakeRoleMap : gameInfo.getRoleMap();
+	}
+
+	@Override
+	public Map<Agent, Integer> getRemainTalkMap() {
+		return gameInfo.getRemainTalkMap();
+	}
+
+	@Override
+	public Map<Agent, Integer> getRemainWhisperMap() {
+		return gameInfo.getRemainWhisperMap();
+	}
+
+	@Override
+	public List<Agent> getLastDeadAgentList() {
+		return gameInfo.getLastDeadAgentList();
+	}
+
+	@Override
+	public List<Role> getExistingRoles() {
+		return gameInfo.getExistingRoles();
+	}
+
+}
@@ -0,0 +1,25 @@
+/**
+ * InferenceModel.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+/**
+ * trained model used for role estimation
+ * 
+ * @author otsuki
+ *
+ */
+public interface InferenceModel {
+
+	/**
+	 * returns the outputs for the inputs
+	 * 
+	 * @param input input vectors, one row for one agent
+	 * @return the first output value for each row
+	 */
+	double[] output(double[][] input);
+
+}
@@ -32,7 +32,25 @@ public class MetaInfo {
 
 	private Map<Role, RoleEstimator> estimatorMap = new HashMap<>();
 
+	// features of the current game, shared by all the estimators
+	private Feature feature;
+
+	private TalkStore talkStore;
+
+	/**
+	 * Constructs MetaInfo with its own talk store.
+	 */
 	public MetaInfo() {
+		this(new TalkStore());
+	}
+
+	/**
+	 * Constructs MetaInfo sharing the talk store.
+	 * 
+	 * @param talkStore the store of parsed talks
+	 */
+	public MetaInfo(TalkStore talkStore) {
+		this.talkStore = talkStore;
 		for (Role role : Arrays.asList(Role.WEREWOLF, Role.VILLAGER, Role.SEER, Role.POSSESSED, Role.MEDIUM, Role.BODYGUARD)) {
 			estimatorMap.put(role, new RoleEstimator(role));
 			roleCountMap.put(role, new int[] { 0 });
@@ -44,7 +62,24 @@ public class MetaInfo {
 	 * @param gameInfo
 	 */
 	public void initialize(GameInfo gameInfo) {
-		gameInfo.getExistingRoles().forEach(r -> getRoleEstimator(r).initialize(gameInfo));
+		feature = new Feature(gameInfo, talkStore);
+		gameInfo.getExistingRoles().forEach(r -> getRoleEstimator(r).initialize(gameInfo, feature));
+	}
+
+	/**
+	 * initializes the meta information of the fake world, which shares the features of the real world
+	 * 
+	 * <p>
+	 * Only the features depending on my role and my judges are computed, so the real world must have been updated with the same talks
+	 * before each update of this, and must not be updated during it.
+	 * </p>
+	 * 
+	 * @param gameInfo the GameInfo of the fake world
+	 * @param real     the meta information of the real world
+	 */
+	public void initialize(GameInfo gameInfo, MetaInfo real) {
+		feature = new Feature(gameInfo, real.getFeature());
+		gameInfo.getExistingRoles().forEach(r -> getRoleEstimator(r).initialize(gameInfo, feature));
 	}
 
 	/**
@@ -52,6 +87,8 @@ public class MetaInfo {
 	 * @param gameInfo
 	 */
 	public void update(GameInfo gameInfo) {
+		// the talks are parsed only once, and each estimator re-evaluates the agents modified since its last inference
+		feature.update(gameInfo, false);
 		gameInfo.getExistingRoles().forEach(r -> getRoleEstimator(r).update(gameInfo));
 	}
 
@@ -104,6 +141,24 @@ public class MetaInfo {
 		return estimatorMap.get(role);
 	}
 
+	/**
+	 * returns the features of the current game
+	 * 
+	 * @return the feature
+	 */
+	public Feature getFeature() {
+		return feature;
+	}
+
+	/**
+	 * returns the store of parsed talks
+	 * 
+	 * @return the talk store
+	 */
+	public TalkStore getTalkStore() {
+		return talkStore;
+	}
+
 	/**
 	 * @return the gameCount
 	 */
@@ -0,0 +1,107 @@
+/**
+ * ModelRepository.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aiwolf.common.data.Role;
+import org.deeplearning4j.nn.modelimport.keras.KerasModelImport;
+import org.deeplearning4j.nn.modelimport.keras.exceptions.InvalidKerasConfigurationException;
+import org.deeplearning4j.nn.modelimport.keras.exceptions.UnsupportedKerasConfigurationException;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+
+/**
+ * process-wide repository of the trained models
+ * 
+ * <p>
+ * Each model is loaded on its first use, only once per JVM, and shared read-only by all RoleEstimators. The models are never trained
+ * after loading, and MultiLayerNetwork#output is synchronized, so they can be shared among players running on different threads.
+ * </p>
+ * 
+ * <p>
+ * The outputs of the models are cached by CachedModel, since the same input vectors recur within a game and across games.
+ * </p>
+ * 
+ * @author otsuki
+ *
+ */
+public final class ModelRepository {
+
+	// path of the model -> the model (null if not found)
+	private static final Map<String, InferenceModel> modelMap = new HashMap<>();
+
+	private ModelRepository() {
+	}
+
+	/**
+	 * loads all the models for the role in the village of the size, which have not been loaded yet
+	 * 
+	 * @param role
+	 * @param numAgents the number of agents in the village
+	 */
+	public static void preload(Role role, int numAgents) {
+		int maxDate = numAgents == 5 ? 2 : 7;
+		for (int date = 1; date <= maxDate; date++) {
+			getModel(role, numAgents, date);
+		}
+	}
+
+	/**
+	 * returns the model for the role on the date, loading it if necessary
+	 * 
+	 * @param role
+	 * @param numAgents the number of agents in the village
+	 * @param date
+	 * @return the model, null if no model
+	 */
+	public static synchronized InferenceModel getModel(Role role, int numAgents, int date) {
+		String path = getPath(role, numAgents, date);
+		if (!modelMap.containsKey(path)) {
+			InferenceModel model = loadModel(path);
+			modelMap.put(path, model == null ? null : new CachedModel(model));
+		}
+		return modelMap.get(path);
+	}
+
+	private static InferenceModel loadModel(String path) {
+		MultiLayerNetwork network = importModel(path);
+		if (network == null) {
+			return null;
+		}
+		return new Dl4jModel(network);
+	}
+
+	private static String getPath(Role role, int numAgents, int date) {
+		String roleName = role.toString().toLowerCase();
+		if (numAgents == 5) {
+			// model for day 1 is used on day 0, and model for day 2 is used after day 2
+			return String.format("05/%s/%02d/bestModel.h5", roleName, Math.min(Math.max(date, 1), 2));
+		}
+		// model for day 1 is used on day 0, and model for day 7-11 is used after day 7
+		if (date >= 7) {
+			return String.format("15/%s/07-11/bestModel.h5", roleName);
+		}
+		return String.format("15/%s/%02d/bestModel.h5", roleName, Math.max(date, 1));
+	}
+
+	private static MultiLayerNetwork importModel(String path) {
+		InputStream is = ModelRepository.class.getClassLoader().getResourceAsStream(path);
+		if (is == null) {
+			return null;
+		}
+		try {
+			return KerasModelImport.importKerasSequentialModelAndWeights(is);
+		} catch (IOException | InvalidKerasConfigurationException | UnsupportedKerasConfigurationException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+}
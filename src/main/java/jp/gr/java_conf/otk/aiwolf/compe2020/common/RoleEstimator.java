@@ -8,26 +8,19 @@ package jp.gr.java_conf.otk.aiwolf.compe2020.common;
 
 import static java.util.Comparator.*;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.aiwolf.common.data.Agent;
 import org.aiwolf.common.data.Role;
 import org.aiwolf.common.net.GameInfo;
-import org.deeplearning4j.nn.modelimport.keras.KerasModelImport;
-import org.deeplearning4j.nn.modelimport.keras.exceptions.InvalidKerasConfigurationException;
-import org.deeplearning4j.nn.modelimport.keras.exceptions.UnsupportedKerasConfigurationException;
-import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.nd4j.common.util.ArrayUtil;
-import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 
 /**
  * role estimator
@@ -42,53 +35,28 @@ public class RoleEstimator extends HashMap<Agent, Double> {
 	private int date;
 	private Role role;
 	private GameInfo gameInfo;
-	private MultiLayerNetwork[] model05;
-	private MultiLayerNetwork[] model15;
 	private Map<Agent, Map<Role, UtteranceStatistics>> statMap = new HashMap<>();
 
 	private Feature feature;
 
 	private Map<Agent, Double> randomMap = new HashMap<>();
 
+	// agents whose probabilities have been overwritten since the last inference
+	private Set<Agent> overwrittenAgents = new HashSet<>();
+
+	// version of the features at the last inference
+	private long featureVersion;
+	// version of the input vector of each agent at the last inference
+	private Map<Agent, Long> versionMap = new HashMap<>();
+
+	// input vectors are written into these rows, which are reused throughout the game
+	private double[][] inputBuffer;
+
+	// incremented whenever any probability changes
+	private long version;
+
 	public RoleEstimator(Role role) {
 		this.role = role;
-		// load models for 5 agent village
-		model05 = new MultiLayerNetwork[4];
-		for (int date = 1; date < 3; date++) {
-			InputStream is = getClass().getClassLoader().getResourceAsStream(
-					String.format("05/%s/%02d/bestModel.h5", role.toString().toLowerCase(), date));
-			try {
-				model05[date] = is == null ? null : KerasModelImport.importKerasSequentialModelAndWeights(is);
-			} catch (IOException | InvalidKerasConfigurationException | UnsupportedKerasConfigurationException e1) {
-				e1.printStackTrace();
-			}
-		}
-		model05[0] = model05[1];
-		model05[3] = model05[2];
-
-		// load models for 15 agent village
-		model15 = new MultiLayerNetwork[15];
-		for (int date = 1; date < 7; date++) {
-			InputStream is = getClass().getClassLoader().getResourceAsStream(
-					String.format("15/%s/%02d/bestModel.h5", role.toString().toLowerCase(), date));
-			try {
-				model15[date] = KerasModelImport.importKerasSequentialModelAndWeights(is);
-			} catch (IOException | InvalidKerasConfigurationException | UnsupportedKerasConfigurationException e) {
-				e.printStackTrace();
-			}
-		}
-		model15[0] = model15[1];
-		InputStream is = getClass().getClassLoader().getResourceAsStream(
-				String.format("15/%s/07-11/bestModel.h5", role.toString().toLowerCase()));
-		try {
-			model15[7] = KerasModelImport.importKerasSequentialModelAndWeights(is);
-		} catch (IOException | InvalidKerasConfigurationException | UnsupportedKerasConfigurationException e) {
-			e.printStackTrace();
-		}
-		for (int date = 8; date < 15; date++) {
-			model15[date] = model15[7];
-		}
-
 		for (int ai = 1; ai <= 15; ai++) {
 			Map<Role, UtteranceStatistics> map = new HashMap<>();
 			for (Role r : Arrays.asList(Role.WEREWOLF, Role.VILLAGER, Role.SEER, Role.POSSESSED, Role.MEDIUM, Role.BODYGUARD)) {
@@ -102,8 +70,9 @@ public class RoleEstimator extends HashMap<Agent, Double> {
 	 * called from Player#initialize()
 	 * 
 	 * @param gameInfo
+	 * @param feature  the features of the game shared by all the estimators
 	 */
-	public void initialize(GameInfo gameInfo) {
+	public void initialize(GameInfo gameInfo, Feature feature) {
 		date = -1;
 		for (Agent agent : gameInfo.getAgentList()) {
 			if (agent == gameInfo.getAgent() && gameInfo.getRole() == role) {
@@ -113,45 +82,89 @@ public class RoleEstimator extends HashMap<Agent, Double> {
 			}
 			randomMap.put(agent, Math.random() / 1.0e7);
 		}
-		feature = new Feature(gameInfo);
+		this.feature = feature;
+		int inputSize = feature.getFeatureArrayLength() + Feature.NUM_ROLES * Feature.NUM_TURNS * Feature.NUM_TOPICS;
+		if (inputBuffer == null || inputBuffer.length != gameInfo.getAgentList().size() || inputBuffer[0].length != inputSize) {
+			inputBuffer = new double[gameInfo.getAgentList().size()][inputSize];
+		}
+		featureVersion = -1;
+		versionMap.clear();
+		overwrittenAgents.clear();
+		version++;
+		// the village size is known here, so load the models to be used before the game starts
+		ModelRepository.preload(role, gameInfo.getAgentList().size());
 	}
 
 	/**
-	 * called from Player#update()
+	 * called from Player#update() after the update of the features
 	 * 
 	 * @param gameInfo
 	 */
 	public void update(GameInfo gameInfo) {
 		this.gameInfo = gameInfo;
 		date = gameInfo.getDay();
-		feature.update(gameInfo, false);
-		if (feature.isModified()) {
+		if (feature.getVersion() != featureVersion || !overwrittenAgents.isEmpty()) {
 			updateValue();
+			featureVersion = feature.getVersion();
+			overwrittenAgents.clear();
 		}
 	}
 
+	/**
+	 * overwrites the probability of the agent until the next inference
+	 * 
+	 * @param agent
+	 * @param prob
+	 */
+	public void overwrite(Agent agent, double prob) {
+		put(agent, prob);
+		overwrittenAgents.add(agent);
+		version++;
+	}
+
+	/**
+	 * returns the version of the probabilities
+	 * 
+	 * @return the version incremented whenever any probability changes
+	 */
+	public long getVersion() {
+		return version;
+	}
+
 	private void updateValue() {
-		for (Agent agent : gameInfo.getAgentList()) {
-			if (agent == gameInfo.getAgent()) {
-				continue;
-			}
-			List<double[]> f1 = new ArrayList<>();
-			f1.add(feature.getFeatureArrayOf(agent));
-			for (Role r : Arrays.asList(Role.WEREWOLF, Role.VILLAGER, Role.SEER, Role.POSSESSED, Role.MEDIUM, Role.BODYGUARD)) {
-				double[] f2 = feature.getUtterancePatternOf(agent);
-				double[] f3 = statMap.get(agent).get(r).getRelativeVerctor();
-				double[] f4 = new double[f3.length];
-				for (int i = 0; i < f3.length; i++) {
-					f4[i] = f2[i] * f3[i];
+		// evaluate only the agents whose input vectors have been modified or whose probabilities have been overwritten
+		List<Agent> agents = gameInfo.getAgentList().stream()
+				.filter(a -> a != gameInfo.getAgent() && (feature.getVersionOf(a) != versionMap.getOrDefault(a, -1L) || overwrittenAgents.contains(a)))
+				.collect(Collectors.toList());
+		if (agents.isEmpty()) {
+			return;
+		}
+		// one row per agent, evaluated by a single forward pass
+		double[][] rows = new double[agents.size()][];
+		for (int i = 0; i < agents.size(); i++) {
+			rows[i] = inputBuffer[i];
+			writeInputOf(agents.get(i), rows[i]);
+		}
+		InferenceModel model = ModelRepository.getModel(role, gameInfo.getAgentList().size(), date);
+		double[] output = model.output(rows);
+		for (int i = 0; i < agents.size(); i++) {
+			Agent agent = agents.get(i);
+			put(agent, output[i] + randomMap.get(agent));
+			versionMap.put(agent, feature.getVersionOf(agent));
+		}
+		version++;
+	}
+
+	private void writeInputOf(Agent agent, double[] row) {
+		int pos = feature.writeFeatureArrayOf(agent, row, 0);
+		double[][] pattern = feature.getUtteranceMatrixOf(agent);
+		for (Role r : Arrays.asList(Role.WEREWOLF, Role.VILLAGER, Role.SEER, Role.POSSESSED, Role.MEDIUM, Role.BODYGUARD)) {
+			double[][] relative = statMap.get(agent).get(r).getRelativeMatrix();
+			for (int turn = 0; turn < Feature.NUM_TURNS; turn++) {
+				for (int iTopic = 0; iTopic < Feature.NUM_TOPICS; iTopic++) {
+					row[pos++] = pattern[turn][iTopic] * relative[turn][iTopic];
 				}
-				f1.add(f4);
 			}
-			double[] f = ArrayUtil.combineDouble(f1);
-			INDArray input = Nd4j.zeros(1, f.length);
-			input.putRow(0, Nd4j.create(f));
-			MultiLayerNetwork model = gameInfo.getAgentList().size() == 5 ? model05[date] : model15[date];
-			INDArray output = model.output(input, false);
-			put(agent, output.getDouble(0) + randomMap.get(agent));
 		}
 	}
 
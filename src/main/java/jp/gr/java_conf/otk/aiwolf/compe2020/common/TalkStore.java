@@ -0,0 +1,103 @@
+/**
+ * TalkStore.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aiwolf.client.lib.Content;
+import org.aiwolf.client.lib.Topic;
+import org.aiwolf.common.data.Agent;
+import org.aiwolf.common.data.Talk;
+
+/**
+ * append-only store of parsed talks indexed by day and index
+ * 
+ * <p>
+ * Each talk is parsed only once per game, and the parsed content is shared by Feature, the players and the inner players of the
+ * fake world, whose talk lists are copies of the real ones. An entry is reused only if the talker and the text of the talk are the
+ * same as those when it was parsed, so the store needs not to be cleared at the start of a game.
+ * </p>
+ * 
+ * @author otsuki
+ *
+ */
+public class TalkStore {
+
+	private static final class Entry {
+		private final Agent talker;
+		private final String text;
+		// content with the subject completed by the talker
+		private Content content;
+
+		Entry(Talk talk) {
+			talker = talk.getAgent();
+			text = talk.getText();
+		}
+
+		boolean isOf(Talk talk) {
+			return talker == talk.getAgent() && text.equals(talk.getText());
+		}
+	}
+
+	// day -> index -> entry
+	private List<List<Entry>> talkTable = new ArrayList<>();
+	private List<List<Entry>> whisperTable = new ArrayList<>();
+
+	/**
+	 * returns the content of the talk, whose subject is the talker if unspecified
+	 * 
+	 * @param talk
+	 * @return the content
+	 */
+	public synchronized Content getContent(Talk talk) {
+		Entry entry = getEntry(talkTable, talk);
+		if (entry.content == null) {
+			entry.content = parse(talk);
+		}
+		return entry.content;
+	}
+
+	/**
+	 * returns the content of the whisper, whose subject is the whisperer if unspecified
+	 * 
+	 * @param whisper
+	 * @return the content
+	 */
+	public synchronized Content getWhisperContent(Talk whisper) {
+		Entry entry = getEntry(whisperTable, whisper);
+		if (entry.content == null) {
+			entry.content = parse(whisper);
+		}
+		return entry.content;
+	}
+
+	private static Entry getEntry(List<List<Entry>> table, Talk talk) {
+		while (table.size() <= talk.getDay()) {
+			table.add(new ArrayList<>());
+		}
+		List<Entry> entries = table.get(talk.getDay());
+		while (entries.size() <= talk.getIdx()) {
+			entries.add(null);
+		}
+		Entry entry = entries.get(talk.getIdx());
+		if (entry == null || !entry.isOf(talk)) {
+			entry = new Entry(talk);
+			entries.set(talk.getIdx(), entry);
+		}
+		return entry;
+	}
+
+	private static Content parse(Talk talk) {
+		Content content = new Content(talk.getText());
+		if (content.getSubject() != Content.UNSPEC || content.getTopic() == Topic.SKIP || content.getTopic() == Topic.OVER) {
+			return content;
+		}
+		return new Content(talk.getAgent() + " " + Content.stripSubject(content.getText()));
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * BasePlayer5SearchBenchmark.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of the search of role assignments in BasePlayer5, before and after the search over cached arrays.
+ * 
+ * <p>
+ * The villager case of the 5 agent village is measured, where a seer, a werewolf and a possessed are assigned to 4 others, and the
+ * search is queried 3 times per talk while the probabilities change once per talk. The old search is the nested loops of
+ * BasePlayer5SearchTest, and the new one is BasePlayer5.searchAssignment, whose result is remembered until the probabilities change as
+ * in BasePlayer5. Run with
+ * <code>java -cp target/classes:target/test-classes:... jp.gr.java_conf.otk.aiwolf.compe2020.BasePlayer5SearchBenchmark [talks]</code>.
+ * </p>
+ * 
+ * @author otsuki
+ */
+public class BasePlayer5SearchBenchmark {
+
+	private static final int NUM_ROLES = 3;
+	private static final int QUERIES_PER_TALK = 3;
+
+	private final double[][] probs;
+	private final boolean[] allowed;
+	private long version;
+	private long searchedVersion = -1;
+	private int[] searchedAssignment;
+
+	private BasePlayer5SearchBenchmark(long seed) {
+		probs = BasePlayer5SearchTest.randomProbs(new Random(seed), NUM_ROLES);
+		allowed = new boolean[probs[0].length];
+	}
+
+	private Map<Integer, Integer> oldSearch() {
+		return BasePlayer5SearchTest.searchByLoops(probs, -1, allowed);
+	}
+
+	private int[] newSearch() {
+		if (searchedVersion != version) {
+			searchedAssignment = BasePlayer5.searchAssignment(probs, -1, allowed);
+			searchedVersion = version;
+		}
+		return searchedAssignment;
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args the number of talks per round, 200000 if omitted
+	 */
+	public static void main(String[] args) {
+		int talks = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		BasePlayer5SearchBenchmark benchmark = new BasePlayer5SearchBenchmark(1);
+		List<String> results = new ArrayList<>();
+		// the first rounds warm up the JIT compiler
+		for (int round = 0; round < 3; round++) {
+			Map<Integer, Integer> oldMap = null;
+			long t0 = System.nanoTime();
+			for (int t = 0; t < talks; t++) {
+				for (int q = 0; q < QUERIES_PER_TALK; q++) {
+					oldMap = benchmark.oldSearch();
+				}
+			}
+			long t1 = System.nanoTime();
+			int[] newAssignment = null;
+			for (int t = 0; t < talks; t++) {
+				benchmark.version++;
+				for (int q = 0; q < QUERIES_PER_TALK; q++) {
+					newAssignment = benchmark.newSearch();
+				}
+			}
+			long t2 = System.nanoTime();
+			boolean isSame = true;
+			for (int i = 0; i < newAssignment.length; i++) {
+				isSame &= oldMap.get(i) == (newAssignment[i] == BasePlayer5.NOT_ASSIGNED ? NUM_ROLES : newAssignment[i]);
+			}
+			results.add(String.format("old %.2f us/talk, new %.2f us/talk, same assignment: %s", (t1 - t0) / 1.0e3 / talks, (t2 - t1) / 1.0e3 / talks,
+					isSame));
+		}
+		results.forEach(System.out::println);
+	}
+
+}
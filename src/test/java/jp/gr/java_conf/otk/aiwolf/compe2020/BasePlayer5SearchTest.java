@@ -0,0 +1,135 @@
+/**
+ * BasePlayer5SearchTest.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Tests that the search of role assignments in BasePlayer5 chooses the same assignment as the nested loops it replaced.
+ * 
+ * @author otsuki
+ */
+public class BasePlayer5SearchTest {
+
+	private static final int NUM_OTHERS = 4;
+	private static final int NUM_CASES = 10000;
+
+	/**
+	 * Searches the assignment by the nested loops over the lists of the candidates, summing the probabilities in a map as before the
+	 * search over cached arrays. The agents are numbered from 0.
+	 * 
+	 * @param probs    the probabilities of each of the searched roles and the villager, the last row, of each of the others
+	 * @param excluded the index of the searched role which only the allowed agents can be, -1 if none
+	 * @param allowed  whether or not each of the others can be the excluded role
+	 * @return the index of the role of each agent, whose villager is the number of the searched roles, null if no assignment is found
+	 */
+	static Map<Integer, Integer> searchByLoops(double[][] probs, int excluded, boolean[] allowed) {
+		int numRoles = probs.length - 1;
+		List<Integer> others = new ArrayList<>();
+		for (int i = 0; i < probs[0].length; i++) {
+			others.add(i);
+		}
+		List<List<Integer>> candidatesList = new ArrayList<>();
+		for (int r = 0; r < numRoles; r++) {
+			int role = r;
+			candidatesList.add(others.stream().filter(a -> role != excluded || allowed[a]).collect(Collectors.toList()));
+		}
+		Map<Integer, Integer> best = new HashMap<>();
+		double[] bestValue = { 0 };
+		searchByLoops(probs, candidatesList, others, new ArrayList<>(), best, bestValue);
+		return best.isEmpty() ? null : best;
+	}
+
+	private static void searchByLoops(double[][] probs, List<List<Integer>> candidatesList, List<Integer> others, List<Integer> assigned,
+			Map<Integer, Integer> best, double[] bestValue) {
+		int numRoles = candidatesList.size();
+		if (assigned.size() == numRoles) {
+			Map<Integer, Integer> estimateMap = new HashMap<>();
+			others.forEach(a -> estimateMap.put(a, numRoles));
+			for (int r = 0; r < numRoles; r++) {
+				estimateMap.put(assigned.get(r), r);
+			}
+			double value = estimateMap.keySet().stream().mapToDouble(a -> probs[estimateMap.get(a)][a]).sum();
+			if (value > bestValue[0]) {
+				bestValue[0] = value;
+				best.clear();
+				best.putAll(estimateMap);
+			}
+			return;
+		}
+		for (Integer a : candidatesList.get(assigned.size()).stream().filter(a -> !assigned.contains(a)).collect(Collectors.toList())) {
+			assigned.add(a);
+			searchByLoops(probs, candidatesList, others, assigned, best, bestValue);
+			assigned.remove(assigned.size() - 1);
+		}
+	}
+
+	static double[][] randomProbs(Random random, int numRoles) {
+		double[][] probs = new double[numRoles + 1][NUM_OTHERS];
+		for (double[] p : probs) {
+			for (int i = 0; i < p.length; i++) {
+				p[i] = random.nextDouble();
+			}
+		}
+		return probs;
+	}
+
+	private static Map<Integer, Integer> toMap(int[] assignment, int numRoles) {
+		if (assignment == null) {
+			return null;
+		}
+		Map<Integer, Integer> map = new HashMap<>();
+		for (int i = 0; i < assignment.length; i++) {
+			map.put(i, assignment[i] == BasePlayer5.NOT_ASSIGNED ? numRoles : assignment[i]);
+		}
+		return map;
+	}
+
+	@Test
+	public void testSameAssignmentWithoutExclusion() {
+		Random random = new Random(1);
+		boolean[] allowed = new boolean[NUM_OTHERS];
+		for (int n = 0; n < NUM_CASES; n++) {
+			// the werewolf, the seer and the possessed search 2 roles, and the villager searches 3 roles
+			int numRoles = random.nextBoolean() ? 2 : 3;
+			double[][] probs = randomProbs(random, numRoles);
+			assertEquals(searchByLoops(probs, -1, allowed), toMap(BasePlayer5.searchAssignment(probs, -1, allowed), numRoles));
+		}
+	}
+
+	@Test
+	public void testSameAssignmentWithExclusion() {
+		Random random = new Random(2);
+		for (int n = 0; n < NUM_CASES; n++) {
+			int numRoles = random.nextBoolean() ? 2 : 3;
+			double[][] probs = randomProbs(random, numRoles);
+			int excluded = random.nextInt(numRoles);
+			boolean[] allowed = new boolean[NUM_OTHERS];
+			for (int i = 0; i < NUM_OTHERS; i++) {
+				allowed[i] = random.nextBoolean();
+			}
+			assertEquals(searchByLoops(probs, excluded, allowed), toMap(BasePlayer5.searchAssignment(probs, excluded, allowed), numRoles));
+		}
+	}
+
+	@Test
+	public void testNoAssignment() {
+		double[][] probs = randomProbs(new Random(3), 3);
+		assertNull(BasePlayer5.searchAssignment(probs, 0, new boolean[NUM_OTHERS]));
+		assertNull(searchByLoops(probs, 0, new boolean[NUM_OTHERS]));
+	}
+
+}
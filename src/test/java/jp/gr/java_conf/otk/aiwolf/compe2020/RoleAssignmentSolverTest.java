@@ -0,0 +1,98 @@
+/**
+ * RoleAssignmentSolverTest.java
+ * 
+ * Copyright 2020 OTSUKI Takashi
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package jp.gr.java_conf.otk.aiwolf.compe2020;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests RoleAssignmentSolver against the brute-force search over all the assignments of small random games.
+ * 
+ * @author otsuki
+ */
+public class RoleAssignmentSolverTest {
+
+	private static final int NUM_GAMES = 2000;
+	private static final double FORBIDDEN = 1.0e6;
+	private static final double EPSILON = 1.0e-9;
+
+	private static double costOf(int[] assignment, double[][] probs, boolean[][] allowed) {
+		double cost = 0;
+		for (int i = 0; i < assignment.length; i++) {
+			int r = assignment[i];
+			cost += allowed[i][r] ? -Math.log(Math.max(probs[i][r], RoleAssignmentSolver.MIN_PROB)) : FORBIDDEN;
+		}
+		return cost;
+	}
+
+	// the minimum cost of all the assignments keeping the numbers of roles
+	private static double bruteForce(int i, int[] assignment, int[] remains, double[][] probs, boolean[][] allowed) {
+		if (i == assignment.length) {
+			return costOf(assignment, probs, allowed);
+		}
+		double min = Double.POSITIVE_INFINITY;
+		for (int r = 0; r < remains.length; r++) {
+			if (remains[r] == 0) {
+				continue;
+			}
+			remains[r]--;
+			assignment[i] = r;
+			min = Math.min(min, bruteForce(i + 1, assignment, remains, probs, allowed));
+			remains[r]++;
+		}
+		return min;
+	}
+
+	@Test
+	public void testOptimalOnRandomGames() {
+		Random random = new Random(1);
+		// the work area is reused by the following calls
+		RoleAssignmentSolver solver = new RoleAssignmentSolver();
+		for (int g = 0; g < NUM_GAMES; g++) {
+			int numAgents = 2 + random.nextInt(7);
+			int numRoles = 1 + random.nextInt(Math.min(numAgents, 4));
+			int[] counts = new int[numRoles];
+			for (int r = 0; r < numRoles; r++) {
+				counts[r] = 1;
+			}
+			for (int k = numRoles; k < numAgents; k++) {
+				counts[random.nextInt(numRoles)]++;
+			}
+			double[][] probs = new double[numAgents][numRoles];
+			boolean[][] allowed = new boolean[numAgents][numRoles];
+			for (int i = 0; i < numAgents; i++) {
+				for (int r = 0; r < numRoles; r++) {
+					// some probabilities are below MIN_PROB, and some pairs are forbidden
+					probs[i][r] = random.nextInt(10) == 0 ? 0.0 : random.nextDouble();
+					allowed[i][r] = random.nextInt(5) != 0;
+				}
+			}
+
+			int[] assignment = solver.solve(probs, allowed, counts);
+			assertNotNull(assignment);
+			int[] assigned = new int[numRoles];
+			for (int r : assignment) {
+				assigned[r]++;
+			}
+			assertArrayEquals(counts, assigned);
+			double expected = bruteForce(0, new int[numAgents], counts.clone(), probs, allowed);
+			assertEquals(expected, costOf(assignment, probs, allowed), EPSILON * Math.max(1.0, expected));
+		}
+	}
+
+	@Test
+	public void testMismatchedCounts() {
+		RoleAssignmentSolver solver = new RoleAssignmentSolver();
+		double[][] probs = { { 0.5, 0.5 }, { 0.5, 0.5 } };
+		boolean[][] allowed = { { true, true }, { true, true } };
+		assertNull(solver.solve(probs, allowed, new int[] { 1, 2 }));
+	}
+
+}